@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.benchmarks;
+
+import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.identity.datatypes.TaskIdType;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.work.datatypes.TaskWorkItemType;
+import net.fhirfactory.pegacorn.core.model.petasos.uow.UoWPayload;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosTaskCacheKey;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload.PonosExternalisedTask;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload.PonosPayloadEntry;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload.PonosPayloadStore;
+import net.fhirfactory.pegacorn.services.tasks.datatypes.PetasosActionableTaskRegistrationType;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.commons.lang3.SerializationUtils;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what payload externalisation saves and costs. The saving is the size and time of shipping a task record
+ * (Java serialisation, the encoding the task record cache uses between nodes) with its payload externalised to the
+ * PonosPayloadStore rather than held inline. The cost is the externalise/resolve round trip, plus the body digest
+ * that each update computes for a status delta. The payload store runs on a local (embedded) cache.
+ *
+ * The record encoding is not compared with a schema (ProtoStream) encoding here: only the Ponos-owned key and cache
+ * functions have a ProtoStream schema (see PonosCacheSchemaInitializer).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PonosPayloadExternalisationBenchmark {
+    private static final String PAYLOAD_STORE_CACHE_NAME = "BenchmarkPayloadStore";
+
+    @Param({"1024", "16384", "131072"})
+    private int payloadLength;
+
+    private EmbeddedCacheManager cacheManager;
+    private PonosPayloadStore payloadStore;
+    private PetasosActionableTask actionableTask;
+    private PonosTaskCacheKey taskKey;
+    private PonosActionableTaskRecord inlineRecord;
+    private PonosActionableTaskRecord externalisedRecord;
+
+    //
+    // Setup
+    //
+
+    @Setup(Level.Trial)
+    public void setup(){
+        this.cacheManager = new DefaultCacheManager();
+        cacheManager.defineConfiguration(PAYLOAD_STORE_CACHE_NAME, new ConfigurationBuilder().build());
+        Cache<String, PonosPayloadEntry> payloadCache = cacheManager.getCache(PAYLOAD_STORE_CACHE_NAME);
+        this.payloadStore = new PonosPayloadStore(payloadCache);
+
+        this.actionableTask = newActionableTask(payloadLength);
+        this.taskKey = PonosTaskCacheKey.fromTaskId(actionableTask.getTaskId());
+        PetasosActionableTaskRegistrationType registration = new PetasosActionableTaskRegistrationType();
+        registration.setActionableTaskId(actionableTask.getTaskId());
+        registration.setRegistrationInstant(Instant.now());
+
+        PonosExternalisedTask externalisedTask = payloadStore.externalise(actionableTask, taskKey);
+        externalisedTask.getPayloadReferencesFuture().join();
+        this.inlineRecord = new PonosActionableTaskRecord(actionableTask, registration, false, null);
+        this.externalisedRecord = new PonosActionableTaskRecord(externalisedTask.getStoredTask(), registration, false, externalisedTask.getPayloadHashes());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        cacheManager.stop();
+    }
+
+    protected static PetasosActionableTask newActionableTask(int payloadLength){
+        TaskIdType taskId = new TaskIdType();
+        taskId.setId(UUID.randomUUID().toString());
+        UoWPayload ingresPayload = new UoWPayload();
+        ingresPayload.setPayload(RandomStringUtils.randomAlphanumeric(payloadLength));
+        TaskWorkItemType taskWorkItem = new TaskWorkItemType();
+        taskWorkItem.setIngresContent(ingresPayload);
+        PetasosActionableTask actionableTask = new PetasosActionableTask();
+        actionableTask.setTaskId(taskId);
+        actionableTask.setTaskWorkItem(taskWorkItem);
+        return(actionableTask);
+    }
+
+    //
+    // Benchmarks
+    //
+
+    @Benchmark
+    public byte[] marshalInlineRecord(){
+        return(SerializationUtils.serialize(inlineRecord));
+    }
+
+    @Benchmark
+    public byte[] marshalExternalisedRecord(){
+        return(SerializationUtils.serialize(externalisedRecord));
+    }
+
+    /**
+     * Re-externalising the same task only re-adds the (already present) reference, so this is the steady state cost
+     * of a task update.
+     */
+    @Benchmark
+    public PetasosActionableTask externaliseTask(){
+        PonosExternalisedTask externalisedTask = payloadStore.externalise(actionableTask, taskKey);
+        externalisedTask.getPayloadReferencesFuture().join();
+        return(externalisedTask.getStoredTask());
+    }
+
+    @Benchmark
+    public String digestTaskBody(){
+        return(payloadStore.digestTaskBody(actionableTask));
+    }
+
+    @Benchmark
+    public PetasosActionableTask resolveStoredTask(){
+        return(payloadStore.resolve(externalisedRecord.getActionableTask()));
+    }
+}
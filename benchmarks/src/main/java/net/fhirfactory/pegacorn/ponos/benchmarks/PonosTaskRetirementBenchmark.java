@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.benchmarks;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.fulfillment.datatypes.TaskFulfillmentType;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.identity.datatypes.TaskIdType;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosTaskCacheKey;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordMerge;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordRetirement;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.functional.FunctionalMap;
+import org.infinispan.functional.impl.FunctionalMapImpl;
+import org.infinispan.functional.impl.ReadWriteMapImpl;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures task retirement running alongside task updates, on a local (embedded, object storage) task record cache:
+ * the record operations of clearTaskFromCache() - the read of the record and its conditional removal - against those
+ * of mergePetasosActionableTask() - the ActionableTaskRecordMerge. Neither side takes a lock of its own; per-key
+ * coordination is the cache's entry lock, so the result shows what retirement costs the update path (compare
+ * mergeOnly with the merge half of mergeAndRetire) as the key space narrows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PonosTaskRetirementBenchmark {
+    private static final String TASK_RECORD_CACHE_NAME = "BenchmarkTaskRecordCache";
+
+    @Param({"64", "4096"})
+    private int keyCount;
+
+    private EmbeddedCacheManager cacheManager;
+    private Cache<DatagridElementKeyInterface, PonosActionableTaskRecord> taskRecordCache;
+    private FunctionalMap.ReadWriteMap<DatagridElementKeyInterface, PonosActionableTaskRecord> taskRecordReadWriteMap;
+    private PonosTaskCacheKey[] taskKeys;
+    private PetasosActionableTask[] actionableTasks;
+
+    //
+    // Setup
+    //
+
+    @Setup(Level.Trial)
+    public void setup(){
+        this.cacheManager = new DefaultCacheManager();
+        ConfigurationBuilder cacheConfiguration = new ConfigurationBuilder();
+        cacheConfiguration.memory().storage(StorageType.OBJECT);
+        cacheManager.defineConfiguration(TASK_RECORD_CACHE_NAME, cacheConfiguration.build());
+        this.taskRecordCache = cacheManager.getCache(TASK_RECORD_CACHE_NAME);
+        this.taskRecordReadWriteMap = ReadWriteMapImpl.create(FunctionalMapImpl.create(taskRecordCache.getAdvancedCache()));
+        this.taskKeys = new PonosTaskCacheKey[keyCount];
+        this.actionableTasks = new PetasosActionableTask[keyCount];
+        for(int counter = 0; counter < keyCount; counter++){
+            actionableTasks[counter] = newActionableTask();
+            taskKeys[counter] = PonosTaskCacheKey.fromTaskId(actionableTasks[counter].getTaskId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        cacheManager.stop();
+    }
+
+    protected static PetasosActionableTask newActionableTask(){
+        TaskIdType taskId = new TaskIdType();
+        taskId.setId(UUID.randomUUID().toString());
+        PetasosActionableTask actionableTask = new PetasosActionableTask();
+        actionableTask.setTaskId(taskId);
+        actionableTask.setTaskFulfillment(new TaskFulfillmentType());
+        return(actionableTask);
+    }
+
+    //
+    // Operations
+    //
+
+    protected PonosActionableTaskRecord mergeTask(int index){
+        ActionableTaskRecordMerge recordMerge = new ActionableTaskRecordMerge(actionableTasks[index], null, null, null, true);
+        taskRecordReadWriteMap.eval(taskKeys[index], recordMerge).join();
+        return(taskRecordCache.get(taskKeys[index]));
+    }
+
+    protected Boolean retireTask(int index){
+        PonosActionableTaskRecord record = taskRecordCache.get(taskKeys[index]);
+        if(record == null){
+            return(null);
+        }
+        return(taskRecordReadWriteMap.eval(taskKeys[index], new ActionableTaskRecordRetirement(record.getRevision())).join());
+    }
+
+    //
+    // Benchmarks
+    //
+
+    @Benchmark
+    @Group("mergeOnly")
+    @GroupThreads(6)
+    public PonosActionableTaskRecord mergeOnly(){
+        return(mergeTask(ThreadLocalRandom.current().nextInt(keyCount)));
+    }
+
+    @Benchmark
+    @Group("mergeAndRetire")
+    @GroupThreads(6)
+    public PonosActionableTaskRecord merge(){
+        return(mergeTask(ThreadLocalRandom.current().nextInt(keyCount)));
+    }
+
+    @Benchmark
+    @Group("mergeAndRetire")
+    @GroupThreads(2)
+    public Boolean retire(){
+        return(retireTask(ThreadLocalRandom.current().nextInt(keyCount)));
+    }
+}
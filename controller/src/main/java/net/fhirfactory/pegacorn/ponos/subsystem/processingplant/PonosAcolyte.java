@@ -23,10 +23,14 @@ package net.fhirfactory.pegacorn.ponos.subsystem.processingplant;
 
 import net.fhirfactory.pegacorn.core.model.topology.role.ProcessingPlantRoleEnum;
 import net.fhirfactory.pegacorn.ponos.interfaces.PonosSubsystemDetailsInterface;
+import net.fhirfactory.pegacorn.ponos.interfaces.datatypes.PonosCacheProfile;
+import net.fhirfactory.pegacorn.ponos.subsystem.processingplant.configuration.PonosAcolyteConfigurationFile;
 import net.fhirfactory.pegacorn.ponos.workshops.workflow.monitoring.TaskFulfillmentWatchdog;
 import net.fhirfactory.pegacorn.processingplant.ProcessingPlant;
 
 import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.Map;
 
 public abstract class PonosAcolyte extends ProcessingPlant implements PonosSubsystemDetailsInterface {
 
@@ -60,6 +64,26 @@ public abstract class PonosAcolyte extends ProcessingPlant implements PonosSubsy
         return (multiuseInfinispanStackConfigFile);
     }
 
+    @Override
+    public Map<String, PonosCacheProfile> getCacheProfiles() {
+        if(specifyPropertyFile() instanceof PonosAcolyteConfigurationFile){
+            PonosAcolyteConfigurationFile ponosPropertyFile = (PonosAcolyteConfigurationFile)specifyPropertyFile();
+            if(ponosPropertyFile.getCacheProfiles() != null){
+                return (ponosPropertyFile.getCacheProfiles());
+            }
+        }
+        return (new HashMap<>());
+    }
+
+    @Override
+    public Long getTaskAgeBeforeForcedRetirement() {
+        if(specifyPropertyFile() instanceof PonosAcolyteConfigurationFile){
+            PonosAcolyteConfigurationFile ponosPropertyFile = (PonosAcolyteConfigurationFile)specifyPropertyFile();
+            return (ponosPropertyFile.getTaskAgeBeforeForcedRetirement());
+        }
+        return (null);
+    }
+
     //
     // Business Methods
     //
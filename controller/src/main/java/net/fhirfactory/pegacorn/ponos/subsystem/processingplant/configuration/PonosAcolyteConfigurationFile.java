@@ -22,15 +22,47 @@
 package net.fhirfactory.pegacorn.ponos.subsystem.processingplant.configuration;
 
 import net.fhirfactory.pegacorn.deployment.properties.configurationfilebased.common.archetypes.PetasosEnabledSubsystemPropertyFile;
+import net.fhirfactory.pegacorn.ponos.interfaces.datatypes.PonosCacheProfile;
+
+import java.util.HashMap;
+import java.util.Map;
 
 public class PonosAcolyteConfigurationFile extends PetasosEnabledSubsystemPropertyFile {
 
+    // Map<cacheName, cacheProfile>
+    private Map<String, PonosCacheProfile> cacheProfiles;
+
+    // seconds, null for the default
+    private Long taskAgeBeforeForcedRetirement;
+
     //
     // Constructor(s)
     //
 
     public PonosAcolyteConfigurationFile(){
         super();
+        this.cacheProfiles = new HashMap<>();
+        this.taskAgeBeforeForcedRetirement = null;
+    }
+
+    //
+    // Getters and Setters
+    //
+
+    public Map<String, PonosCacheProfile> getCacheProfiles() {
+        return cacheProfiles;
+    }
+
+    public void setCacheProfiles(Map<String, PonosCacheProfile> cacheProfiles) {
+        this.cacheProfiles = cacheProfiles;
+    }
+
+    public Long getTaskAgeBeforeForcedRetirement() {
+        return taskAgeBeforeForcedRetirement;
+    }
+
+    public void setTaskAgeBeforeForcedRetirement(Long taskAgeBeforeForcedRetirement) {
+        this.taskAgeBeforeForcedRetirement = taskAgeBeforeForcedRetirement;
     }
 
     //
@@ -67,6 +99,8 @@ public class PonosAcolyteConfigurationFile extends PetasosEnabledSubsystemProper
                 ", petasosIPCMessagingEndpoint=" + getPetasosIPCMessagingEndpoint() +
                 ", edgeAnswer=" + getEdgeAnswer() +
                 ", petasosTopologyDiscoveryEndpoint=" + getPetasosTopologyDiscoveryEndpoint() +
+                ", cacheProfiles=" + getCacheProfiles() +
+                ", taskAgeBeforeForcedRetirement=" + getTaskAgeBeforeForcedRetirement() +
                 '}';
     }
 }
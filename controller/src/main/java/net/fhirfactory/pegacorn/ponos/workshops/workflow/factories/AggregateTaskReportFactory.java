@@ -92,10 +92,9 @@ public class AggregateTaskReportFactory {
 
         TaskTraceabilityType taskTraceability = lastTask.getTaskTraceability();
         //
-        // Get the 1st
-        TaskTraceabilityElementType firstTaskTraceabilityElement = taskTraceability.getTaskJourney().get(0);
-        TaskIdType firstTaskId = firstTaskTraceabilityElement.getActionableTaskId();
-        PetasosActionableTask firstTask = getTaskCacheServices().getPetasosActionableTask(firstTaskId);
+        // Get the whole Journey (in one fetch), and the 1st
+        Map<TaskIdType, PetasosActionableTask> journeyTasks = getJourneyTasks(lastTask);
+        PetasosActionableTask firstTask = resolveJourneyStartTask(lastTask, journeyTasks);
 
         String ingresEndpointParticipantName = null;
         if(firstTask.getTaskFulfillment().getFulfillerWorkUnitProcessor() instanceof WorkUnitProcessorSoftwareComponent){
@@ -146,7 +145,11 @@ public class AggregateTaskReportFactory {
         Integer stepCount = 0 ;
         for(Integer counter = 0; counter < journeySize; counter += 1 ){
             TaskIdType currentTaskId = taskTraceability.getTaskJourney().get(counter).getActionableTaskId();
-            PetasosActionableTask currentTask = getTaskCacheServices().getPetasosActionableTask(currentTaskId);
+            PetasosActionableTask currentTask = journeyTasks.get(currentTaskId);
+            if(currentTask == null){
+                getLogger().debug(".endOfChainReport(): Journey task is no longer available, skipping, taskId->{}", currentTaskId);
+                continue;
+            }
             boolean addToReport = false;
             if(previousTaskId == null){
                 addToReport = true;
@@ -359,9 +362,7 @@ public class AggregateTaskReportFactory {
         TaskTraceabilityType taskTraceability = lastTask.getTaskTraceability();
         //
         // Get the 1st
-        TaskTraceabilityElementType firstTaskTraceabilityElement = taskTraceability.getTaskJourney().get(0);
-        TaskIdType firstTaskId = firstTaskTraceabilityElement.getActionableTaskId();
-        PetasosActionableTask firstTask = getTaskCacheServices().getPetasosActionableTask(firstTaskId);
+        PetasosActionableTask firstTask = resolveJourneyStartTask(lastTask);
 
         StringBuilder reportBuilder = new StringBuilder();
         StringBuilder formattedReportBuilder = new StringBuilder();
@@ -521,6 +522,76 @@ public class AggregateTaskReportFactory {
         return(taskNotification);
     }
 
+    //
+    // Helpers
+    //
+
+    /**
+     * Resolves the first task of the lastTask's journey. Retired tasks are read from the task cache's archive, but the
+     * tasks of a journey that outlasts the archive's retention may be gone, so this falls back to the earliest journey
+     * task that can still be resolved, and ultimately to the lastTask itself - it never returns null.
+     *
+     * @param lastTask the last (in chain) task of the journey
+     * @param journeyTasks the (already fetched) tasks of the journey
+     * @return the earliest resolvable task of the journey
+     */
+    protected PetasosActionableTask resolveJourneyStartTask(PetasosActionableTask lastTask, Map<TaskIdType, PetasosActionableTask> journeyTasks){
+        TaskTraceabilityType taskTraceability = lastTask.getTaskTraceability();
+        if(taskTraceability == null || taskTraceability.getTaskJourney() == null){
+            return(lastTask);
+        }
+        for(TaskTraceabilityElementType currentJourneyElement: taskTraceability.getTaskJourney()){
+            PetasosActionableTask currentTask = journeyTasks.get(currentJourneyElement.getActionableTaskId());
+            if(currentTask != null){
+                return(currentTask);
+            }
+            getLogger().debug(".resolveJourneyStartTask(): Journey task is no longer available, taskId->{}", currentJourneyElement.getActionableTaskId());
+        }
+        getLogger().warn(".resolveJourneyStartTask(): No task of the journey is available, using the last task, lastTask->{}", lastTask.getTaskId());
+        return(lastTask);
+    }
+
+    /**
+     * Fetches every (resolvable) task of the lastTask's journey in one (multi-get) cache operation.
+     *
+     * @param lastTask the last (in chain) task of the journey
+     * @return the journey's tasks, keyed by their TaskIdType (tasks that could not be resolved are absent)
+     */
+    protected Map<TaskIdType, PetasosActionableTask> getJourneyTasks(PetasosActionableTask lastTask){
+        TaskTraceabilityType taskTraceability = lastTask.getTaskTraceability();
+        if(taskTraceability == null || taskTraceability.getTaskJourney() == null){
+            return(new HashMap<>());
+        }
+        List<TaskIdType> journeyTaskIds = new ArrayList<>();
+        for(TaskTraceabilityElementType currentJourneyElement: taskTraceability.getTaskJourney()){
+            journeyTaskIds.add(currentJourneyElement.getActionableTaskId());
+        }
+        return(getTaskCacheServices().getPetasosActionableTasks(journeyTaskIds));
+    }
+
+    /**
+     * As per resolveJourneyStartTask(lastTask, journeyTasks), but resolving the journey's tasks one at a time - for
+     * callers that only want the first task (usually a single get).
+     *
+     * @param lastTask the last (in chain) task of the journey
+     * @return the earliest resolvable task of the journey
+     */
+    protected PetasosActionableTask resolveJourneyStartTask(PetasosActionableTask lastTask){
+        TaskTraceabilityType taskTraceability = lastTask.getTaskTraceability();
+        if(taskTraceability == null || taskTraceability.getTaskJourney() == null){
+            return(lastTask);
+        }
+        for(TaskTraceabilityElementType currentJourneyElement: taskTraceability.getTaskJourney()){
+            PetasosActionableTask currentTask = getTaskCacheServices().getPetasosActionableTask(currentJourneyElement.getActionableTaskId());
+            if(currentTask != null){
+                return(currentTask);
+            }
+            getLogger().debug(".resolveJourneyStartTask(): Journey task is no longer available, taskId->{}", currentJourneyElement.getActionableTaskId());
+        }
+        getLogger().warn(".resolveJourneyStartTask(): No task of the journey is available, using the last task, lastTask->{}", lastTask.getTaskId());
+        return(lastTask);
+    }
+
     //
     // Getters (and Setters)
     //
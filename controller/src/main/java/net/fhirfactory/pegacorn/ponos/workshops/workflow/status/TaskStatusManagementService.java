@@ -21,10 +21,15 @@
  */
 package net.fhirfactory.pegacorn.ponos.workshops.workflow.status;
 
-import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
 import net.fhirfactory.pegacorn.petasos.oam.metrics.agents.ProcessingPlantMetricsAgent;
 import net.fhirfactory.pegacorn.petasos.oam.metrics.agents.ProcessingPlantMetricsAgentAccessor;
 import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.PonosPetasosActionableTaskCacheServices;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.core.PonosReplicatedCacheServices;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEvent;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventSubscriber;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventTypeEnum;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.statistics.PonosActionableTaskStatistics;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.statistics.PonosCacheMemoryStatistics;
 import net.fhirfactory.pegacorn.services.tasks.cache.PetasosActionableTaskDM;
 import net.fhirfactory.pegacorn.services.tasks.manager.PetasosTaskServicesManagerHandler;
 import org.apache.camel.LoggingLevel;
@@ -35,12 +40,15 @@ import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import java.time.Instant;
-import java.util.Set;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 @ApplicationScoped
-public class TaskStatusManagementService extends PetasosTaskServicesManagerHandler {
+public class TaskStatusManagementService extends PetasosTaskServicesManagerHandler implements ActionableTaskCacheEventSubscriber {
     private static final Logger LOG = LoggerFactory.getLogger(TaskStatusManagementService.class);
 
     private boolean initialised;
@@ -49,15 +57,26 @@ public class TaskStatusManagementService extends PetasosTaskServicesManagerHandl
 
     private boolean daemonIsStillRunning;
     private Instant daemonLastRunTime;
+    private Instant statisticsLastPublishedTime;
+
+    // Running (cluster wide) count of each type of task cache event, fed by the task cache event listener
+    private Map<ActionableTaskCacheEventTypeEnum, AtomicLong> taskCacheEventCounts;
 
     private static Long TASK_STATUS_MANAGEMENT_DAEMON_STARTUP_DELAY = 60000L;
     private static Long TASK_STATUS_MANAGEMENT_DAEMON_CHECK_PERIOD = 10000L;
     private static Long TASK_STATUS_MANAGEMENT_DAEMON_RESET_PERIOD = 180L;
-    private static Long TASK_AGE_BEFORE_FORCED_RETIREMENT = 120L;
+    // The task cache statistics (index queries) and cache memory statistics (a pass over every local cache entry) are
+    // published less often than the daemon runs
+    private static Long TASK_CACHE_STATISTICS_PUBLISH_PERIOD = 60L;
+
+    private static final String ACTIONABLE_TASK_CACHE_METRIC_PREFIX = "ActionableTaskCache";
 
     @Inject
     private PonosPetasosActionableTaskCacheServices taskCacheServices;
 
+    @Inject
+    private PonosReplicatedCacheServices replicatedCacheServices;
+
     @Inject
     private ProcessingPlantMetricsAgentAccessor metricsAgentAccessor;
 
@@ -68,6 +87,10 @@ public class TaskStatusManagementService extends PetasosTaskServicesManagerHandl
     public TaskStatusManagementService(){
         super();
         this.initialised = false;
+        this.taskCacheEventCounts = new EnumMap<>(ActionableTaskCacheEventTypeEnum.class);
+        for(ActionableTaskCacheEventTypeEnum currentEventType: ActionableTaskCacheEventTypeEnum.values()){
+            this.taskCacheEventCounts.put(currentEventType, new AtomicLong(0));
+        }
     }
 
     //
@@ -84,6 +107,7 @@ public class TaskStatusManagementService extends PetasosTaskServicesManagerHandl
         getLogger().info(".initialise(): Initialisation Start...");
 
         scheduleTaskStatusManagementDaemon();
+        taskCacheServices.addTaskCacheEventSubscriber(this);
 
         this.initialised = true;
 
@@ -126,18 +150,87 @@ public class TaskStatusManagementService extends PetasosTaskServicesManagerHandl
         metricsAgentAccessor.getMetricsAgent().updateLocalCacheStatus("ActionableTaskCache", cacheSize);
         int registrationCacheSize = taskCacheServices.getTaskRegistrationCacheSize();
         metricsAgentAccessor.getMetricsAgent().updateLocalCacheStatus("ActionableTaskRegistrationCache", registrationCacheSize);
-
-        Set<DatagridElementKeyInterface> agedCacheContent = taskCacheServices.getAgedCacheContent(TASK_AGE_BEFORE_FORCED_RETIREMENT);
-        for(DatagridElementKeyInterface currentKey: agedCacheContent){
-            taskCacheServices.clearTaskFromCache(currentKey);
+        if(isTaskCacheStatisticsPublishDue()){
+            publishTaskCacheStatistics(taskCacheServices.getActionableTaskStatistics());
+            publishCacheMemoryStatistics(replicatedCacheServices.getCacheMemoryStatistics());
+            statisticsLastPublishedTime = Instant.now();
         }
+        publishTaskCacheEventCounts();
+        metricsAgentAccessor.getMetricsAgent().updateLocalCacheStatus("ActionableTaskNearCache", toMetricValue(taskCacheServices.getTaskNearCache().getSize()));
     }
 
     //
     // Business Methods
     //
 
+    protected void publishTaskCacheStatistics(PonosActionableTaskStatistics statistics){
+        getLogger().debug(".publishTaskCacheStatistics(): Entry, statistics->{}", statistics);
+        if(statistics == null){
+            getLogger().debug(".publishTaskCacheStatistics(): Exit, statistics is null");
+            return;
+        }
+        ProcessingPlantMetricsAgent metricsAgent = metricsAgentAccessor.getMetricsAgent();
+        metricsAgent.updateLocalCacheStatus(ACTIONABLE_TASK_CACHE_METRIC_PREFIX + ".ClusterTaskCount", toMetricValue(statistics.getTaskCount()));
+        metricsAgent.updateLocalCacheStatus(ACTIONABLE_TASK_CACHE_METRIC_PREFIX + ".OldestTaskAge", toMetricValue(statistics.getOldestTaskAge(Instant.now())));
+        publishTaskCounts(metricsAgent, ".FulfillmentStatus.", statistics.getFulfillmentStatusCounts());
+        publishTaskCounts(metricsAgent, ".OutcomeStatus.", statistics.getOutcomeStatusCounts());
+        publishTaskCounts(metricsAgent, ".Participant.", statistics.getParticipantCounts());
+        getLogger().debug(".publishTaskCacheStatistics(): Exit");
+    }
+
+    protected void publishTaskCacheEventCounts(){
+        ProcessingPlantMetricsAgent metricsAgent = metricsAgentAccessor.getMetricsAgent();
+        for(Map.Entry<ActionableTaskCacheEventTypeEnum, AtomicLong> currentCount: taskCacheEventCounts.entrySet()){
+            metricsAgent.updateLocalCacheStatus(ACTIONABLE_TASK_CACHE_METRIC_PREFIX + ".Events." + currentCount.getKey().name(), toMetricValue(currentCount.getValue().get()));
+        }
+    }
 
+    /**
+     * Publishes the (estimated) memory used by each cache: the total (in KB, as the metric values are ints), the mean
+     * and max entry sizes and the (estimated) number of entries in each size bucket of the entry size histogram.
+     *
+     * @param memoryStatistics the memory statistics of the caches
+     */
+    protected void publishCacheMemoryStatistics(List<PonosCacheMemoryStatistics> memoryStatistics){
+        getLogger().debug(".publishCacheMemoryStatistics(): Entry");
+        ProcessingPlantMetricsAgent metricsAgent = metricsAgentAccessor.getMetricsAgent();
+        for(PonosCacheMemoryStatistics currentStatistics: memoryStatistics){
+            String cacheName = currentStatistics.getCacheName();
+            metricsAgent.updateLocalCacheStatus(cacheName + ".EstimatedKB", toMetricValue(currentStatistics.getEstimatedTotalBytes() / 1024));
+            metricsAgent.updateLocalCacheStatus(cacheName + ".MeanEntryBytes", toMetricValue(currentStatistics.getMeanEntryBytes()));
+            metricsAgent.updateLocalCacheStatus(cacheName + ".MaxEntryBytes", toMetricValue(currentStatistics.getMaxEntryBytes()));
+            for(int bucket = 0; bucket < PonosCacheMemoryStatistics.getBucketCount(); bucket += 1){
+                metricsAgent.updateLocalCacheStatus(cacheName + ".EntrySize." + PonosCacheMemoryStatistics.getBucketLabel(bucket), toMetricValue(currentStatistics.getEstimatedBucketCount(bucket)));
+            }
+        }
+        getLogger().debug(".publishCacheMemoryStatistics(): Exit");
+    }
+
+    @Override
+    public void onActionableTaskCacheEvent(ActionableTaskCacheEvent event) {
+        AtomicLong eventCount = taskCacheEventCounts.get(event.getEventType());
+        if(eventCount != null){
+            eventCount.incrementAndGet();
+        }
+    }
+
+    private boolean isTaskCacheStatisticsPublishDue(){
+        if(statisticsLastPublishedTime == null){
+            return(true);
+        }
+        Long ageSincePublished = Instant.now().getEpochSecond() - statisticsLastPublishedTime.getEpochSecond();
+        return(ageSincePublished >= getTaskCacheStatisticsPublishPeriod());
+    }
+
+    private void publishTaskCounts(ProcessingPlantMetricsAgent metricsAgent, String category, Map<String, Long> taskCounts){
+        for(Map.Entry<String, Long> currentCount: taskCounts.entrySet()){
+            metricsAgent.updateLocalCacheStatus(ACTIONABLE_TASK_CACHE_METRIC_PREFIX + category + currentCount.getKey(), toMetricValue(currentCount.getValue()));
+        }
+    }
+
+    private int toMetricValue(long value){
+        return((int)Math.min(value, Integer.MAX_VALUE));
+    }
 
     //
     // Getters (and Setters)
@@ -173,4 +266,8 @@ public class TaskStatusManagementService extends PetasosTaskServicesManagerHandl
         return TASK_STATUS_MANAGEMENT_DAEMON_RESET_PERIOD;
     }
 
+    public static Long getTaskCacheStatisticsPublishPeriod() {
+        return TASK_CACHE_STATISTICS_PUBLISH_PERIOD;
+    }
+
 }
@@ -39,11 +39,15 @@ import net.fhirfactory.pegacorn.ponos.workshops.oam.ProcessingPlantTaskReportPro
 import net.fhirfactory.pegacorn.ponos.workshops.workflow.factories.AggregateTaskReportFactory;
 import net.fhirfactory.pegacorn.ponos.workshops.workflow.status.activities.common.TaskActivityProcessorBase;
 import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.PonosPetasosActionableTaskCacheServices;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEvent;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventSubscriber;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventTypeEnum;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import java.time.ZoneId;
@@ -52,11 +56,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import net.fhirfactory.pegacorn.ponos.workshops.workflow.factories.EndpointInformationExtractor;
 import org.apache.commons.lang3.StringUtils;
 
 @ApplicationScoped
-public class AggregateTaskReportingActivities extends TaskActivityProcessorBase {
+public class AggregateTaskReportingActivities extends TaskActivityProcessorBase implements ActionableTaskCacheEventSubscriber {
     private static final Logger LOG = LoggerFactory.getLogger(AggregateTaskReportingActivities.class);
 
     private boolean initialised;
@@ -65,6 +72,10 @@ public class AggregateTaskReportingActivities extends TaskActivityProcessorBase
 
     private boolean stillRunning;
 
+    // Reporting runs are serialised on this thread, whether requested by the daemon or by a task cache event
+    private ExecutorService reportingExecutor;
+    private AtomicBoolean reportingRunRequested;
+
     private Long CONTENT_FORWARDER_STARTUP_DELAY = 120000L;
     private Long CONTENT_FORWARDER_REFRESH_PERIOD = 15000L;
 
@@ -107,6 +118,7 @@ public class AggregateTaskReportingActivities extends TaskActivityProcessorBase
         super();
         this.initialised = false;
         this.stillRunning = false;
+        this.reportingRunRequested = new AtomicBoolean(false);
         timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd hh:mm:ss.SSS").withZone(ZoneId.of(PetasosPropertyConstants.DEFAULT_TIMEZONE));
 
     }
@@ -124,13 +136,30 @@ public class AggregateTaskReportingActivities extends TaskActivityProcessorBase
         }
         getLogger().info(".initialise(): Initialisation Start...");
 
+        // Created here (not in the constructor) so that the container's client proxies of this bean never start threads
+        this.reportingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread reportingThread = new Thread(runnable, "AggregateTaskReporting");
+            reportingThread.setDaemon(true);
+            return(reportingThread);
+        });
         scheduleAggregateTaskReportingDaemon();
+        getTaskCacheServices().addTaskCacheEventSubscriber(this);
 
         this.initialised = true;
 
         getLogger().info(".initialise(): Initialisation Finish...");
     }
 
+    @PreDestroy
+    public void shutdown() {
+        getLogger().debug(".shutdown(): Entry");
+        getTaskCacheServices().removeTaskCacheEventSubscriber(this);
+        if(reportingExecutor != null) {
+            reportingExecutor.shutdown();
+        }
+        getLogger().debug(".shutdown(): Exit");
+    }
+
     //
     // Daemon Task Scheduler
     //
@@ -141,7 +170,7 @@ public class AggregateTaskReportingActivities extends TaskActivityProcessorBase
             public void run() {
                 getLogger().debug(".aggregateTaskReportDaemonTask(): Entry");
                 if (!isStillRunning()) {
-                    aggregateTaskReportingDaemon();
+                    requestAggregateTaskReportingRun();
                 }
                 getLogger().debug(".aggregateTaskReportDaemonTask(): Exit");
             }
@@ -151,6 +180,37 @@ public class AggregateTaskReportingActivities extends TaskActivityProcessorBase
         getLogger().debug(".scheduleAggregateTaskReportingDaemon(): Exit");
     }
 
+    //
+    // Event Driven Reporting
+    //
+
+    /**
+     * Last-in-chain completions are reported as they happen (rather than on the next daemon cycle). The completion
+     * queue is filled on the Ponos instance that wrote the task, so only locally originated completions trigger a
+     * run here; the daemon remains as a safety net for anything an event did not cover.
+     *
+     * @param event the task cache event
+     */
+    @Override
+    public void onActionableTaskCacheEvent(ActionableTaskCacheEvent event) {
+        if(event.getEventType() == ActionableTaskCacheEventTypeEnum.TASK_LAST_IN_CHAIN_COMPLETED && event.isOriginLocal()){
+            getLogger().trace(".onActionableTaskCacheEvent(): Last in chain task completed, taskKey->{}", event.getTaskKey());
+            requestAggregateTaskReportingRun();
+        }
+    }
+
+    protected void requestAggregateTaskReportingRun(){
+        if(reportingExecutor == null || reportingExecutor.isShutdown()){
+            return;
+        }
+        if(reportingRunRequested.compareAndSet(false, true)){
+            reportingExecutor.execute(() -> {
+                reportingRunRequested.set(false);
+                aggregateTaskReportingDaemon();
+            });
+        }
+    }
+
     //
     // Business Methods
     //
@@ -178,6 +238,7 @@ public class AggregateTaskReportingActivities extends TaskActivityProcessorBase
                             getTaskCacheServices().setReportStatus(currentTask.getTaskId(), true);
                         } catch (Exception ex) {
                             getLogger().warn(".aggregateTaskReportingDaemon(): Could not generate/send task report, message->{}, stackTrace->{}", ExceptionUtils.getMessage(ex), ExceptionUtils.getStackTrace(ex));
+                            recordReportFailure(currentTask);
                         }
                     }
                 } else {
@@ -192,6 +253,16 @@ public class AggregateTaskReportingActivities extends TaskActivityProcessorBase
         getLogger().debug(".aggregateTaskReportingDaemon(): Exit");
     }
 
+    protected void recordReportFailure(PetasosActionableTask currentTask){
+        try {
+            if (getTaskCacheServices().recordReportFailure(currentTask.getTaskId())) {
+                getLogger().warn(".recordReportFailure(): Giving up on task report after repeated failures, taskId->{}", currentTask.getTaskId());
+            }
+        } catch (Exception ex) {
+            getLogger().warn(".recordReportFailure(): Could not record task report failure, taskId->{}, message->{}", currentTask.getTaskId(), ExceptionUtils.getMessage(ex));
+        }
+    }
+
     public void publishEndOfChainFullTaskReport(PetasosActionableTask lastTask) {
         getLogger().debug(".publishEndOfChainTaskReport(): Entry, lastTask->{}", lastTask);
 
@@ -215,9 +286,13 @@ public class AggregateTaskReportingActivities extends TaskActivityProcessorBase
 
         //
         // Publish to First Participant
-        String firstSubsystemName = firstTask.getTaskFulfillment().getFulfillerWorkUnitProcessor().getSubsystemParticipantName();
-        ComponentIdType firstComponentId = firstTask.getTaskFulfillment().getFulfillerWorkUnitProcessor().getComponentID();
-        taskReportProxy.sendITOpsTaskReport(firstSubsystemName,firstComponentId, report.getContent(), report.getFormattedContent());
+        if(firstTask != null) {
+            String firstSubsystemName = firstTask.getTaskFulfillment().getFulfillerWorkUnitProcessor().getSubsystemParticipantName();
+            ComponentIdType firstComponentId = firstTask.getTaskFulfillment().getFulfillerWorkUnitProcessor().getComponentID();
+            taskReportProxy.sendITOpsTaskReport(firstSubsystemName, firstComponentId, report.getContent(), report.getFormattedContent());
+        } else {
+            getLogger().debug(".publishEndOfChainTaskReport(): First task is no longer available, not publishing to first participant, firstTaskId->{}", firstTaskId);
+        }
 
         //
         // All done
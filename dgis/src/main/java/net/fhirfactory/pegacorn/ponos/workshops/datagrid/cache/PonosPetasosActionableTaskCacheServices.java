@@ -29,7 +29,6 @@ import net.fhirfactory.pegacorn.core.model.componentid.ComponentIdType;
 import net.fhirfactory.pegacorn.core.model.datagrid.datatypes.DatagridPersistenceResourceCapabilityType;
 import net.fhirfactory.pegacorn.core.model.datagrid.datatypes.DatagridPersistenceServiceRegistrationType;
 import net.fhirfactory.pegacorn.core.model.datagrid.datatypes.DatagridPersistenceServiceType;
-import net.fhirfactory.pegacorn.core.model.datagrid.datatypes.PonosDatagridTaskKey;
 import net.fhirfactory.pegacorn.core.model.datagrid.valuesets.DatagridPersistenceResourceStatusEnum;
 import net.fhirfactory.pegacorn.core.model.datagrid.valuesets.DatagridPersistenceServiceDeploymentScopeEnum;
 import net.fhirfactory.pegacorn.core.model.datagrid.valuesets.DatagridPersistenceServiceResourceScopeEnum;
@@ -38,25 +37,98 @@ import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
 import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.fulfillment.valuesets.FulfillmentExecutionStatusEnum;
 import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.identity.datatypes.TaskIdType;
 import net.fhirfactory.pegacorn.core.model.topology.endpoints.edge.jgroups.JGroupsIntegrationPointSummary;
+import net.fhirfactory.pegacorn.ponos.interfaces.datatypes.PonosCacheProfile;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.archive.ActionableTaskNegativeCache;
 import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.core.PonosReplicatedCacheServices;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosComponentTaskIndexEntry;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosTaskCacheKey;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskComponentIndexUpdate;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordMerge;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordMergeFunction;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordReportClaim;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordReportFailure;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordRetirement;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordStateUpdate;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskStatusDelta;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventFilterConverter;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventListener;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventPublisher;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventSubscriber;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.expiry.ActionableTaskExpiryIndex;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.expiry.ActionableTaskExpiryIndexListener;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.near.ActionableTaskNearCache;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload.PonosExternalisedTask;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload.PonosPayloadEntry;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload.PonosPayloadStore;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.query.PonosActionableTaskQuery;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.query.PonosActionableTaskQueryResult;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.statistics.ActionableTaskStatisticsCollector;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.statistics.PonosActionableTaskStatistics;
 import net.fhirfactory.pegacorn.services.tasks.cache.PetasosActionableTaskDM;
 import net.fhirfactory.pegacorn.services.tasks.datatypes.PetasosActionableTaskRegistrationType;
 import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.infinispan.Cache;
-import org.infinispan.CacheCollection;
-import org.infinispan.CacheSet;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.context.Flag;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.functional.FunctionalMap;
+import org.infinispan.functional.impl.FunctionalMapImpl;
+import org.infinispan.functional.impl.ReadWriteMapImpl;
+import org.infinispan.query.Search;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.QueryFactory;
+import org.infinispan.query.dsl.QueryResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+/**
+ * The (Ponos) datagrid of PetasosActionableTasks.
+ *
+ * Each task is held as a single PonosActionableTaskRecord (task, registration and journey-reported flag), so every
+ * lifecycle step is one write - and one replication - of one entry. The writes are functions (merges/updates) that
+ * are evaluated on the owner(s) of the record, so they are atomic within the cluster.
+ *
+ * The records (and the tasks and registrations within them) are held as objects (object storage) and treated as
+ * immutable snapshots: a write always puts a new record and no record is modified once it has been put, so a local
+ * read takes the stored record as-is - no decoding and no deep clone of the payloads. Registrations are handed to
+ * callers as new revisions.
+ *
+ * Each write externalises the task's (larger) payloads to the PonosPayloadStore first - hashing each payload once -
+ * and stores a copy of the task that carries references in their place. The read methods return the task with the
+ * references resolved, but do not copy it on every read: a task without externalised payloads is returned as stored,
+ * a record read from another owner is resolved in place, and a record held by this instance is resolved into a copy
+ * once - which is memoised on the (immutable) record. The tasks returned are therefore shared, read-only snapshots:
+ * callers must not modify them. Retiring a task releases its payload references.
+ *
+ * Retiring a task also moves it - resolved, so it holds no payload references - into the ActionableTaskArchive, where
+ * it is kept for the archive's retention (its profile's lifespan, or ARCHIVED_TASK_DEFAULT_RETENTION). The get methods
+ * read through to the archive when a task is not in the task cache, so the tasks of a journey that outlasts the
+ * retirement window can still be resolved; lookups that miss both are damped by a (local) negative cache.
+ */
 @ApplicationScoped
 public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTaskDM {
     private static final Logger LOG = LoggerFactory.getLogger(PonosPetasosActionableTaskCacheServices.class);
@@ -65,13 +137,70 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
 
     private static final String PONOS_TASK_PERSISTENCE_SERVICE = "Ponos-ActionableTask-Persistence-Service";
 
-    private Cache<DatagridElementKeyInterface, PetasosActionableTask> taskCache;
-    private Object taskCacheLock;
+    private static final String ACTIONABLE_TASK_CACHE_NAME = "ActionableTaskCache";
+    private static final String ACTIONABLE_TASK_PERSISTENCE_SERVICE_CACHE_NAME = "ActionableTaskPersistenceServiceCache";
+    private static final String ACTIONABLE_TASK_COMPONENT_INDEX_NAME = "ActionableTaskComponentIndex";
+    private static final String ACTIONABLE_TASK_PAYLOAD_STORE_NAME = "ActionableTaskPayloadStore";
+    private static final String ACTIONABLE_TASK_ARCHIVE_NAME = "ActionableTaskArchive";
+
+    // How long (milliseconds) a retired task is kept in the archive, unless the archive's profile defines a lifespan
+    private static final long ARCHIVED_TASK_DEFAULT_RETENTION = 3600000L;
+
+    private static final String ACTIONABLE_TASK_RECORD_ENTITY = PonosActionableTaskRecord.class.getName();
+
+    // Unreported completions older than this (milliseconds) are picked up by their primary owner, not just their writer
+    private static final long UNREPORTED_COMPLETION_GRACE_PERIOD = 60000L;
+    private static final int UNREPORTED_COMPLETION_PAGE_SIZE = 500;
+
+    // A journey report is claimed (leased) for this long (milliseconds) by the instance reporting on it
+    private static final long JOURNEY_REPORT_CLAIM_LEASE = 300000L;
+    // A failed journey report is retried after this long (milliseconds), doubled for each earlier failure...
+    private static final long JOURNEY_REPORT_RETRY_BACKOFF = 15000L;
+    // ... and is given up on after this many attempts
+    private static final int JOURNEY_REPORT_MAX_ATTEMPTS = 5;
+
+    // A task whose record changes this many times while it is being retired is left for a later retirement pass
+    private static final int TASK_RETIREMENT_ATTEMPTS = 3;
+
+    // How long (milliseconds) to wait for each cluster member's task cache statistics
+    private static final long STATISTICS_COLLECTION_TIMEOUT = 30000L;
+
+    // Cache<taskKey, PonosActionableTaskRecord(task, registration, journeyReported)>
+    private Cache<DatagridElementKeyInterface, PonosActionableTaskRecord> taskRecordCache;
+    private FunctionalMap.ReadWriteMap<DatagridElementKeyInterface, PonosActionableTaskRecord> taskRecordReadWriteMap;
 
-    private Cache<DatagridElementKeyInterface, PetasosActionableTaskRegistrationType> taskRegistrationCache;
     private Cache<DataParcelTypeDescriptor, DatagridPersistenceServiceRegistrationType> taskPersistenceServiceCache;
 
-    private Cache<DatagridElementKeyInterface, Boolean> taskJourneyReportedMap;
+    // Cache<componentId, Set<taskKey> partitioned by FulfillmentExecutionStatusEnum>
+    private Cache<ComponentIdType, PonosComponentTaskIndexEntry> taskComponentIndex;
+    private FunctionalMap.ReadWriteMap<ComponentIdType, PonosComponentTaskIndexEntry> taskComponentIndexReadWriteMap;
+
+    // Cache<payloadHash, PonosPayloadEntry(payloadContent, referencing taskKeys)> - the (content addressed, deduplicated) UoWPayload content of the tasks
+    private Cache<String, PonosPayloadEntry> taskPayloadStoreCache;
+    private PonosPayloadStore taskPayloadStore;
+
+    // Local (this Ponos instance) queue of last-in-chain tasks awaiting reporting
+    private ConcurrentLinkedQueue<DatagridElementKeyInterface> taskCompletionQueue;
+    private Set<DatagridElementKeyInterface> taskCompletionQueueMembership;
+
+    // Cache<taskKey, PonosActionableTaskRecord(resolved task, registration, journeyReported)> - the retired tasks
+    private Cache<DatagridElementKeyInterface, PonosActionableTaskRecord> taskArchiveCache;
+    private long taskArchiveRetention;
+
+    // Local (this Ponos instance) record of the tasks found in neither the task cache nor the archive
+    private ActionableTaskNegativeCache taskNegativeCache;
+
+    // Local (this Ponos instance) time-bucketed index of registrations, used for retirement
+    private ActionableTaskExpiryIndex taskExpiryIndex;
+
+    // Local (this Ponos instance) bounded near cache of (resolved) tasks, invalidated by the task cache events
+    private ActionableTaskNearCache taskNearCache;
+
+    // Local (this Ponos instance) fan-out of the (clustered) task cache events to in-process subscribers
+    private ActionableTaskCacheEventPublisher taskCacheEventPublisher;
+
+    // Completes the (index/queue) side of asynchronous registrations/updates, off the cache's non-blocking threads
+    private ExecutorService taskCacheCompletionExecutor;
 
     @Inject
     private ProcessingPlantInterface processingPlant;
@@ -92,7 +221,11 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
     public PonosPetasosActionableTaskCacheServices(){
         super();
         this.initialised = false;
-        this.taskCacheLock = new Object();
+        this.taskCompletionQueue = new ConcurrentLinkedQueue<>();
+        this.taskCompletionQueueMembership = ConcurrentHashMap.newKeySet();
+        this.taskExpiryIndex = new ActionableTaskExpiryIndex();
+        this.taskNegativeCache = new ActionableTaskNegativeCache();
+        this.taskCacheEventPublisher = new ActionableTaskCacheEventPublisher();
     }
 
     //
@@ -105,13 +238,55 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
         if(!initialised) {
             getLogger().info(".initialise(): Initialisation Start");
 
+            // Created here (not in the constructor) so that the container's client proxies of this bean never start threads
+            taskCacheCompletionExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread completionThread = new Thread(runnable, "PonosTaskCacheCompletion");
+                completionThread.setDaemon(true);
+                return(completionThread);
+            });
+
+            getLogger().info(".initialise(): [Initialising Payload Store] Start");
+            taskPayloadStoreCache = replicatedCacheServices.getCacheManager().createCache(ACTIONABLE_TASK_PAYLOAD_STORE_NAME, replicatedCacheServices.getLosslessCacheConfigurationBuild(ACTIONABLE_TASK_PAYLOAD_STORE_NAME));
+            taskPayloadStore = new PonosPayloadStore(taskPayloadStoreCache);
+            getLogger().info(".initialise(): [Initialising Payload Store] End");
+
             getLogger().info(".initialise(): [Initialising Caches] Start");
-            taskCache = replicatedCacheServices.getCacheManager().createCache("ActionableTaskCache", replicatedCacheServices.getCacheConfigurationBuild());
-            taskRegistrationCache = replicatedCacheServices.getCacheManager().createCache("ActionableTaskRegistrationCache", replicatedCacheServices.getCacheConfigurationBuild());
-            taskPersistenceServiceCache = replicatedCacheServices.getCacheManager().createCache("ActionableTaskPersistenceServiceCache", replicatedCacheServices.getCacheConfigurationBuild());
-            taskJourneyReportedMap = replicatedCacheServices.getCacheManager().createCache("ActionableTaskReportedCache", replicatedCacheServices.getCacheConfigurationBuild());
+            taskRecordCache = replicatedCacheServices.getCacheManager().createCache(ACTIONABLE_TASK_CACHE_NAME, replicatedCacheServices.getIndexedCacheConfigurationBuild(ACTIONABLE_TASK_CACHE_NAME, true, PonosActionableTaskRecord.class));
+            taskRecordReadWriteMap = ReadWriteMapImpl.create(FunctionalMapImpl.create(taskRecordCache.getAdvancedCache()));
+            taskPersistenceServiceCache = replicatedCacheServices.getCacheManager().createCache(ACTIONABLE_TASK_PERSISTENCE_SERVICE_CACHE_NAME, replicatedCacheServices.getCacheConfigurationBuild(ACTIONABLE_TASK_PERSISTENCE_SERVICE_CACHE_NAME));
+            taskComponentIndex = replicatedCacheServices.getCacheManager().createCache(ACTIONABLE_TASK_COMPONENT_INDEX_NAME, replicatedCacheServices.getLosslessCacheConfigurationBuild(ACTIONABLE_TASK_COMPONENT_INDEX_NAME));
+            taskComponentIndexReadWriteMap = ReadWriteMapImpl.create(FunctionalMapImpl.create(taskComponentIndex.getAdvancedCache()));
             getLogger().info(".initialise(): [Initialising Caches] End");
 
+            getLogger().info(".initialise(): [Initialising Archive] Start");
+            taskArchiveCache = replicatedCacheServices.getCacheManager().createCache(ACTIONABLE_TASK_ARCHIVE_NAME, replicatedCacheServices.getCacheConfigurationBuild(ACTIONABLE_TASK_ARCHIVE_NAME));
+            PonosCacheProfile taskArchiveProfile = replicatedCacheServices.getCacheProfile(ACTIONABLE_TASK_ARCHIVE_NAME);
+            if(taskArchiveProfile != null && taskArchiveProfile.getLifespan() != null){
+                taskArchiveRetention = taskArchiveProfile.getLifespan();
+            } else {
+                taskArchiveRetention = ARCHIVED_TASK_DEFAULT_RETENTION;
+            }
+            getLogger().info(".initialise(): [Initialising Archive] End, taskArchiveRetention->{}", taskArchiveRetention);
+
+            getLogger().info(".initialise(): [Initialising Expiry Index] Start");
+            taskRecordCache.addListener(new ActionableTaskExpiryIndexListener(getTaskExpiryIndex(), taskRecordCache));
+            getLogger().info(".initialise(): [Initialising Expiry Index] End");
+
+            getLogger().info(".initialise(): [Initialising Cache Event Listener] Start");
+            ActionableTaskCacheEventFilterConverter eventFilterConverter = new ActionableTaskCacheEventFilterConverter();
+            taskRecordCache.addListener(new ActionableTaskCacheEventListener(getTaskCacheEventPublisher()), eventFilterConverter, eventFilterConverter);
+            getLogger().info(".initialise(): [Initialising Cache Event Listener] End");
+
+            getLogger().info(".initialise(): [Initialising Near Cache] Start");
+            PonosCacheProfile taskCacheProfile = replicatedCacheServices.getCacheProfile(ACTIONABLE_TASK_CACHE_NAME);
+            if(taskCacheProfile != null){
+                taskNearCache = new ActionableTaskNearCache(taskCacheProfile.getNearCacheMaxCount(), taskCacheProfile.getNearCacheLifespan());
+            } else {
+                taskNearCache = new ActionableTaskNearCache();
+            }
+            getTaskCacheEventPublisher().subscribe(getTaskNearCache());
+            getLogger().info(".initialise(): [Initialising Near Cache] End, nearCache->{}", getTaskNearCache());
+
             //
             // Register Myself as a Persistence Service
             getLogger().info(".initialise(): [Register As a Persistence Service] Start");
@@ -146,6 +321,15 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
         getLogger().debug(".initialise(): Exit");
     }
 
+    @PreDestroy
+    public void shutdown(){
+        getLogger().debug(".shutdown(): Entry");
+        if(getTaskCacheCompletionExecutor() != null) {
+            getTaskCacheCompletionExecutor().shutdown();
+        }
+        getLogger().debug(".shutdown(): Exit");
+    }
+
     //
     // Business Methods
     //
@@ -157,31 +341,7 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
             getLogger().debug(".registerPetasosActionableTask(): Exit, actionableTask is null");
             return null;
         }
-        PonosDatagridTaskKey entryKey = new PonosDatagridTaskKey(actionableTask.getTaskId());
-        PetasosActionableTaskRegistrationType actionableTaskRegistration = null;
-        boolean taskAlreadyRegistered = false;
-        if(getTaskRegistrationCache().containsKey(entryKey)){
-            actionableTaskRegistration = SerializationUtils.clone(getTaskRegistrationCache().get(actionableTask.getTaskId()));
-            taskAlreadyRegistered = true;
-        } else {
-            actionableTaskRegistration = new PetasosActionableTaskRegistrationType();
-            actionableTaskRegistration.setActionableTaskId(actionableTask.getTaskId());
-            actionableTaskRegistration.setRegistrationInstant(Instant.now());
-            actionableTaskRegistration.setCheckInstant(Instant.now());
-        }
-        actionableTaskRegistration.addFulfillmentProcessingPlant(integrationPoint.getProcessingPlantInstanceId());
-        actionableTaskRegistration.addPerformerTypes(actionableTask.getTaskPerformerTypes());
-        if(!taskAlreadyRegistered){
-            actionableTask.setRegistered(true);
-            actionableTask.getTaskFulfillment().setRegistrationInstant(Instant.now());
-            getTaskCache().put(entryKey, actionableTask);
-            getTaskRegistrationCache().put(entryKey, actionableTaskRegistration);
-            getTaskJourneyReportedMap().putIfAbsent(entryKey, false);
-
-        } else {
-            getTaskCache().replace(entryKey, actionableTask);
-            getTaskRegistrationCache().replace(entryKey, actionableTaskRegistration);
-        }
+        PetasosActionableTaskRegistrationType actionableTaskRegistration = mergePetasosActionableTask(actionableTask, integrationPoint, false);
         getLogger().debug(".registerPetasosActionableTask(): Exit, actionableTaskRegistration->{}", actionableTaskRegistration);
         return(actionableTaskRegistration);
     }
@@ -193,23 +353,134 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
             getLogger().debug(".updatePetasosActionableTask(): Exit, actionableTask is null");
             return null;
         }
-        PonosDatagridTaskKey entryKey = new PonosDatagridTaskKey(actionableTask.getTaskId());
-        PetasosActionableTaskRegistrationType actionableTaskRegistration = null;
-        if(getTaskRegistrationCache().containsKey(entryKey)){
-            PetasosActionableTask registeredActionableTask = getTaskCache().get(entryKey);
-            actionableTaskRegistration = SerializationUtils.clone(getTaskRegistrationCache().get(entryKey));
-            getTaskCache().replace(entryKey, actionableTask);
-            actionableTaskRegistration.setCheckInstant(Instant.now());
-            actionableTaskRegistration.addPerformerTypes(actionableTask.getTaskPerformerTypes());
-            actionableTaskRegistration.addFulfillmentProcessingPlant(integrationPoint.getProcessingPlantInstanceId());
-            getTaskRegistrationCache().replace(entryKey, actionableTaskRegistration);
-        } else{
-            actionableTaskRegistration = registerPetasosActionableTask(actionableTask, integrationPoint);
-        }
+        PetasosActionableTaskRegistrationType actionableTaskRegistration = mergePetasosActionableTask(actionableTask, integrationPoint, true);
         getLogger().debug(".updatePetasosActionableTask(): Exit, actionableTaskRegistration->{}", actionableTaskRegistration);
         return(actionableTaskRegistration);
     }
 
+    //
+    // Asynchronous Business Methods
+    //
+
+    /**
+     * The non-blocking equivalent of registerPetasosActionableTask(): the returned future completes once the record has
+     * been written (and replicated) and the component index updated, so the calling (e.g. RPC) thread is not held for
+     * the duration.
+     *
+     * @param actionableTask the task to register
+     * @param integrationPoint the integration point (ProcessingPlant) the task was received from
+     * @return a future of the task's registration (null if actionableTask is null)
+     */
+    public CompletableFuture<PetasosActionableTaskRegistrationType> registerPetasosActionableTaskAsync(PetasosActionableTask actionableTask, JGroupsIntegrationPointSummary integrationPoint) {
+        getLogger().debug(".registerPetasosActionableTaskAsync(): Entry, actionableTask->{}, integrationPoint->{}", actionableTask,integrationPoint);
+        if(actionableTask == null) {
+            getLogger().debug(".registerPetasosActionableTaskAsync(): Exit, actionableTask is null");
+            return(CompletableFuture.completedFuture(null));
+        }
+        CompletableFuture<PetasosActionableTaskRegistrationType> registrationFuture = mergePetasosActionableTaskAsync(actionableTask, integrationPoint, false);
+        getLogger().debug(".registerPetasosActionableTaskAsync(): Exit");
+        return(registrationFuture);
+    }
+
+    /**
+     * The non-blocking equivalent of updatePetasosActionableTask().
+     *
+     * @param actionableTask the task to update
+     * @param integrationPoint the integration point (ProcessingPlant) the update was received from
+     * @return a future of the task's registration (null if actionableTask is null)
+     */
+    public CompletableFuture<PetasosActionableTaskRegistrationType> updatePetasosActionableTaskAsync(PetasosActionableTask actionableTask, JGroupsIntegrationPointSummary integrationPoint) {
+        getLogger().debug(".updatePetasosActionableTaskAsync(): Entry, actionableTask->{}, integrationPoint->{}", actionableTask,integrationPoint);
+        if(actionableTask == null) {
+            getLogger().debug(".updatePetasosActionableTaskAsync(): Exit, actionableTask is null");
+            return(CompletableFuture.completedFuture(null));
+        }
+        CompletableFuture<PetasosActionableTaskRegistrationType> registrationFuture = mergePetasosActionableTaskAsync(actionableTask, integrationPoint, true);
+        getLogger().debug(".updatePetasosActionableTaskAsync(): Exit");
+        return(registrationFuture);
+    }
+
+    /**
+     * The non-blocking equivalent of getPetasosActionableTask() - including the read-through to the archive.
+     *
+     * @param taskId the id of the task
+     * @return a future of the (shared, read-only) task - null if it is not in the cache
+     */
+    public CompletableFuture<PetasosActionableTask> getPetasosActionableTaskAsync(TaskIdType taskId) {
+        getLogger().debug(".getPetasosActionableTaskAsync(): Entry, taskId->{}", taskId);
+        if(taskId == null) {
+            getLogger().debug(".getPetasosActionableTaskAsync(): Exit, taskId is null");
+            return(CompletableFuture.completedFuture(null));
+        }
+        PonosTaskCacheKey entryKey = PonosTaskCacheKey.fromTaskId(taskId);
+        PetasosActionableTask nearTask = getTaskNearCache().get(entryKey);
+        if(nearTask != null){
+            getLogger().debug(".getPetasosActionableTaskAsync(): Exit, (near cache) actionableTask->{}", nearTask);
+            return(CompletableFuture.completedFuture(nearTask));
+        }
+        long nearCacheStamp = getTaskNearCache().beginRead(entryKey);
+        CompletableFuture<PetasosActionableTask> taskFuture = getTaskRecordCache().getAsync(entryKey)
+                .thenComposeAsync(record -> {
+                    if(record == null){
+                        return(getArchivedTaskAsync(entryKey));
+                    }
+                    PetasosActionableTask actionableTask = getResolvedTask(entryKey, record);
+                    getTaskNearCache().putIfNotInvalidated(entryKey, actionableTask, nearCacheStamp);
+                    return(CompletableFuture.completedFuture(actionableTask));
+                }, getTaskCacheCompletionExecutor());
+        getLogger().debug(".getPetasosActionableTaskAsync(): Exit");
+        return(taskFuture);
+    }
+
+    /**
+     * Registers a batch of PetasosActionableTasks. The same outcome as calling registerPetasosActionableTask() for each
+     * task, but the record merges are evaluated in one (evalMany) operation, so the replication cost is a handful of
+     * round trips for the whole batch rather than one for each task.
+     *
+     * @param actionableTasks the tasks to register (null entries are ignored)
+     * @param integrationPoint the integration point (ProcessingPlant) the tasks were received from
+     * @return the registrations of the tasks
+     */
+    public List<PetasosActionableTaskRegistrationType> registerPetasosActionableTasks(Collection<PetasosActionableTask> actionableTasks, JGroupsIntegrationPointSummary integrationPoint) {
+        getLogger().debug(".registerPetasosActionableTasks(): Entry, integrationPoint->{}", integrationPoint);
+        List<PetasosActionableTaskRegistrationType> registrations = mergePetasosActionableTasks(actionableTasks, integrationPoint, false);
+        getLogger().debug(".registerPetasosActionableTasks(): Exit, number of registrations->{}", registrations.size());
+        return(registrations);
+    }
+
+    /**
+     * Updates a batch of PetasosActionableTasks. The same outcome as calling updatePetasosActionableTask() for each
+     * task, with the writes grouped as per registerPetasosActionableTasks().
+     *
+     * @param actionableTasks the tasks to update (null entries are ignored)
+     * @param integrationPoint the integration point (ProcessingPlant) the tasks were received from
+     * @return the registrations of the tasks
+     */
+    public List<PetasosActionableTaskRegistrationType> updatePetasosActionableTasks(Collection<PetasosActionableTask> actionableTasks, JGroupsIntegrationPointSummary integrationPoint) {
+        getLogger().debug(".updatePetasosActionableTasks(): Entry, integrationPoint->{}", integrationPoint);
+        List<PetasosActionableTaskRegistrationType> registrations = mergePetasosActionableTasks(actionableTasks, integrationPoint, true);
+        getLogger().debug(".updatePetasosActionableTasks(): Exit, number of registrations->{}", registrations.size());
+        return(registrations);
+    }
+
+    /**
+     * Returns the task held under the given (task cache) key - e.g. the key passed to the DatagridEntrySaveRequest
+     * service when a task is archived.
+     *
+     * @param taskKey the task's key (a PonosTaskCacheKey)
+     * @return the (shared, read-only) task, or null if it is not in the cache
+     */
+    public PetasosActionableTask getPetasosActionableTask(DatagridElementKeyInterface taskKey) {
+        getLogger().debug(".getPetasosActionableTask(): Entry, taskKey->{}", taskKey);
+        if(taskKey == null) {
+            getLogger().debug(".getPetasosActionableTask(): Exit, taskKey is null");
+            return(null);
+        }
+        PetasosActionableTask actionableTask = getCachedTask(taskKey);
+        getLogger().debug(".getPetasosActionableTask(): Exit, actionableTask->{}", actionableTask);
+        return(actionableTask);
+    }
+
     @Override
     public PetasosActionableTask getPetasosActionableTask(TaskIdType taskId) {
         getLogger().debug(".getPetasosActionableTask(): Entry, taskId->{}", taskId);
@@ -217,9 +488,9 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
             getLogger().debug(".getPetasosActionableTask(): Exit, taskId is null");
             return null;
         }
-        PonosDatagridTaskKey entryKey = new PonosDatagridTaskKey(taskId);
-        if(getTaskCache().containsKey(entryKey)){
-            PetasosActionableTask actionableTask = SerializationUtils.clone(getTaskCache().get(entryKey));
+        PonosTaskCacheKey entryKey = PonosTaskCacheKey.fromTaskId(taskId);
+        PetasosActionableTask actionableTask = getCachedTask(entryKey);
+        if(actionableTask != null){
             getLogger().debug(".getPetasosActionableTask(): Exit, actionableTask->{}", actionableTask);
             return (actionableTask);
         }
@@ -227,6 +498,77 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
         return(null);
     }
 
+    /**
+     * Resolves a set of tasks (e.g. every task of a journey) in one multi-get against the task cache, rather than one
+     * get per task - tasks held in the near cache are not fetched at all. Tasks not in the task cache are then read
+     * through from the archive, again in one multi-get.
+     *
+     * @param taskIds the ids of the tasks to resolve (null entries are ignored)
+     * @return the (shared, read-only) tasks, in the iteration order of taskIds - tasks that could not be resolved are
+     * absent
+     */
+    public Map<TaskIdType, PetasosActionableTask> getPetasosActionableTasks(Collection<TaskIdType> taskIds) {
+        getLogger().debug(".getPetasosActionableTasks(): Entry, taskIds->{}", taskIds);
+        Map<TaskIdType, PetasosActionableTask> actionableTasks = new LinkedHashMap<>();
+        if(taskIds == null || taskIds.isEmpty()) {
+            getLogger().debug(".getPetasosActionableTasks(): Exit, taskIds is null or empty");
+            return(actionableTasks);
+        }
+        Map<TaskIdType, DatagridElementKeyInterface> entryKeys = new LinkedHashMap<>();
+        for(TaskIdType currentTaskId: taskIds){
+            if(currentTaskId != null && !entryKeys.containsKey(currentTaskId)){
+                entryKeys.put(currentTaskId, PonosTaskCacheKey.fromTaskId(currentTaskId));
+            }
+        }
+        Map<DatagridElementKeyInterface, PetasosActionableTask> nearTasks = new HashMap<>();
+        Map<DatagridElementKeyInterface, Long> nearCacheStamps = new HashMap<>();
+        for(DatagridElementKeyInterface currentKey: entryKeys.values()){
+            PetasosActionableTask nearTask = getTaskNearCache().get(currentKey);
+            if(nearTask != null){
+                nearTasks.put(currentKey, nearTask);
+            } else {
+                nearCacheStamps.put(currentKey, getTaskNearCache().beginRead(currentKey));
+            }
+        }
+        Set<DatagridElementKeyInterface> remoteKeys = new HashSet<>(nearCacheStamps.keySet());
+        Map<DatagridElementKeyInterface, PonosActionableTaskRecord> records = new HashMap<>();
+        if(!remoteKeys.isEmpty()){
+            records = new HashMap<>(getTaskRecordCache().getAll(remoteKeys));
+            Set<DatagridElementKeyInterface> archivedKeys = new HashSet<>();
+            for(DatagridElementKeyInterface currentKey: remoteKeys){
+                if(!records.containsKey(currentKey) && !getTaskNegativeCache().isKnownMiss(currentKey)){
+                    archivedKeys.add(currentKey);
+                }
+            }
+            if(!archivedKeys.isEmpty()){
+                Map<DatagridElementKeyInterface, PonosActionableTaskRecord> archivedRecords = getTaskArchiveCache().getAll(archivedKeys);
+                for(DatagridElementKeyInterface currentKey: archivedKeys){
+                    PonosActionableTaskRecord archivedRecord = archivedRecords.get(currentKey);
+                    if(archivedRecord != null){
+                        records.put(currentKey, archivedRecord);
+                    } else {
+                        getTaskNegativeCache().recordMiss(currentKey);
+                    }
+                }
+            }
+        }
+        for(Map.Entry<TaskIdType, DatagridElementKeyInterface> currentEntry: entryKeys.entrySet()){
+            PetasosActionableTask currentTask = nearTasks.get(currentEntry.getValue());
+            if(currentTask == null){
+                PonosActionableTaskRecord currentRecord = records.get(currentEntry.getValue());
+                if(currentRecord != null && currentRecord.hasActionableTask()){
+                    currentTask = getResolvedTask(currentEntry.getValue(), currentRecord);
+                    getTaskNearCache().putIfNotInvalidated(currentEntry.getValue(), currentTask, nearCacheStamps.get(currentEntry.getValue()));
+                }
+            }
+            if(currentTask != null){
+                actionableTasks.put(currentEntry.getKey(), currentTask);
+            }
+        }
+        getLogger().debug(".getPetasosActionableTasks(): Exit, requested->{}, resolved->{}", entryKeys.size(), actionableTasks.size());
+        return(actionableTasks);
+    }
+
     @Override
     public List<PetasosActionableTask> getPetasosActionableTasksForComponent(ComponentIdType componentId) {
         getLogger().debug(".getPetasosActionableTasksForComponent(): Entry, componentId->{}", componentId);
@@ -235,13 +577,10 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
             return(new ArrayList<>());
         }
         List<PetasosActionableTask> activeActionableTasks = new ArrayList<>();
-        for(PetasosActionableTaskRegistrationType currentTaskRegistration: getTaskRegistrationCache().values()){
-            for(ComponentIdType currentComponentId: currentTaskRegistration.getFulfillmentProcessingPlants()) {
-                if (currentComponentId.equals(componentId)) {
-                    PonosDatagridTaskKey entryKey = new PonosDatagridTaskKey(currentTaskRegistration.getActionableTaskId());
-                    PetasosActionableTask actionableTask = SerializationUtils.clone(getTaskCache().get(entryKey));
-                    activeActionableTasks.add(actionableTask);
-                }
+        for(DatagridElementKeyInterface currentKey: getComponentTaskKeys(componentId)){
+            PetasosActionableTask currentTask = getCachedTask(currentKey);
+            if(currentTask != null){
+                activeActionableTasks.add(currentTask);
             }
         }
         getLogger().debug(".getPetasosActionableTasksForComponent(): Exit");
@@ -256,14 +595,11 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
             return(new ArrayList<>());
         }
         List<PetasosActionableTask> waitingActionableTasks = new ArrayList<>();
-        for(PetasosActionableTaskRegistrationType currentTaskRegistration: getTaskRegistrationCache().values()){
-            for(ComponentIdType currentComponentId: currentTaskRegistration.getFulfillmentProcessingPlants()) {
-                if (currentComponentId.equals(componentId)) {
-                    PonosDatagridTaskKey entryKey = new PonosDatagridTaskKey(currentTaskRegistration.getActionableTaskId());
-                    PetasosActionableTask actionableTask = SerializationUtils.clone(getTaskCache().get(entryKey));
-                    if(actionableTask.getTaskFulfillment().getStatus().equals(FulfillmentExecutionStatusEnum.FULFILLMENT_EXECUTION_STATUS_REGISTERED)) {
-                        waitingActionableTasks.add(actionableTask);
-                    }
+        for(DatagridElementKeyInterface currentKey: getComponentTaskKeys(componentId, FulfillmentExecutionStatusEnum.FULFILLMENT_EXECUTION_STATUS_REGISTERED)){
+            PetasosActionableTask currentTask = getCachedTask(currentKey);
+            if(currentTask != null){
+                if(FulfillmentExecutionStatusEnum.FULFILLMENT_EXECUTION_STATUS_REGISTERED.equals(resolveFulfillmentStatus(currentTask))) {
+                    waitingActionableTasks.add(currentTask);
                 }
             }
         }
@@ -277,7 +613,7 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
         if(actionableTask != null){
             success = archivePetasosActionableTask(actionableTask.getTaskId());
         }
-        return false;
+        return(success);
     }
 
     @Override
@@ -287,92 +623,876 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
             getLogger().debug(".archivePetasosActionableTask(): Exit, taskId is null");
             return(false);
         }
-        PonosDatagridTaskKey entryKey = new PonosDatagridTaskKey(taskId);
-        PetasosActionableTaskRegistrationType actionableTaskRegistrationType = getTaskRegistrationCache().get(entryKey);
-        actionableTaskRegistrationType.setResourceStatus(DatagridPersistenceResourceStatusEnum.RESOURCE_SAVE_REQUESTED);
+        PonosTaskCacheKey entryKey = PonosTaskCacheKey.fromTaskId(taskId);
+        ActionableTaskRecordStateUpdate stateUpdate = ActionableTaskRecordStateUpdate.resourceStatus(DatagridPersistenceResourceStatusEnum.RESOURCE_SAVE_REQUESTED);
+        Boolean updated = getTaskRecordReadWriteMap().eval(entryKey, stateUpdate).join();
+        if(!Boolean.TRUE.equals(updated)){
+            getLogger().debug(".archivePetasosActionableTask(): Exit, task is not registered");
+            return(false);
+        }
         getDatagridEntrySaveRequestService().requestDatagridEntrySave(entryKey);
+        getLogger().debug(".archivePetasosActionableTask(): Exit, save requested, entryKey->{}", entryKey);
         return(true);
     }
 
+    /**
+     * Returns (a snapshot of) each last-in-chain task awaiting reporting: those queued by this Ponos instance and, as a
+     * fallback for completions queued on an instance that has since left the cluster, any unreported last-in-chain task
+     * that finished more than UNREPORTED_COMPLETION_GRACE_PERIOD ago and whose primary owner is this instance.
+     *
+     * Each task returned has been claimed for this instance (see ActionableTaskRecordReportClaim), so a task offered by
+     * both its writer's queue and its primary owner's query is only reported once. The caller must either
+     * setReportStatus(taskId, true) or recordReportFailure(taskId) for each. Tasks stay queued until one of those marks
+     * the journey as reported, so a report that fails is offered again once its back-off has passed; tasks that have
+     * been reported elsewhere, or cleared from the cache, are dropped from the queue.
+     *
+     * @return the list of completed (last-in-chain) tasks awaiting reporting
+     */
     public List<PetasosActionableTask> getLastInChainActionableEvents(){
         getLogger().debug(".getLastInChainActionableEvents(): Entry");
 
         List<PetasosActionableTask> endedJourneyList = new ArrayList<>();
-        synchronized (getTaskCacheLock()) {
-            CacheCollection<PetasosActionableTask> values = getTaskCache().values();
-            for(PetasosActionableTask currentTask: values){
-                if(getLogger().isInfoEnabled()){
-                    getLogger().trace(".getLastInChainActionableEvents(): Iterating, currentTask->{}", currentTask);
-                }
-                if(currentTask.hasTaskCompletionSummary()){
-                    if(currentTask.getTaskCompletionSummary().isLastInChain()){
-                        endedJourneyList.add(SerializationUtils.clone(currentTask));
-                    }
-                }
+        Set<DatagridElementKeyInterface> visitedKeys = new HashSet<>();
+        Iterator<DatagridElementKeyInterface> queueIterator = getTaskCompletionQueue().iterator();
+        while(queueIterator.hasNext()){
+            DatagridElementKeyInterface currentKey = queueIterator.next();
+            if(!visitedKeys.add(currentKey) || !getTaskCompletionQueueMembership().contains(currentKey)){
+                // already reported, or a duplicate left behind when the task was re-queued
+                queueIterator.remove();
+                continue;
+            }
+            PonosActionableTaskRecord currentRecord = getTaskRecordCache().get(currentKey);
+            if(currentRecord == null || !currentRecord.hasActionableTask() || currentRecord.isJourneyReported()){
+                getTaskCompletionQueueMembership().remove(currentKey);
+                queueIterator.remove();
+                continue;
+            }
+            Boolean claimed = claimJourneyReport(currentKey);
+            if(claimed == null){
+                getTaskCompletionQueueMembership().remove(currentKey);
+                queueIterator.remove();
+                continue;
+            }
+            if(claimed){
+                getLogger().trace(".getLastInChainActionableEvents(): Iterating, currentKey->{}", currentKey);
+                endedJourneyList.add(getResolvedTask(currentKey, currentRecord));
             }
         }
-        if(getLogger().isInfoEnabled()) {
-            getLogger().debug(".getLastInChainActionableEvents(): Exit, number of entries->{}", endedJourneyList.size());
+        for(PonosActionableTaskRecord currentRecord: getUnreportedCompletions()){
+            DatagridElementKeyInterface currentKey = PonosTaskCacheKey.fromTaskId(currentRecord.getRegistration().getActionableTaskId());
+            if(visitedKeys.add(currentKey) && isPrimaryOwner(currentKey) && Boolean.TRUE.equals(claimJourneyReport(currentKey))){
+                getLogger().trace(".getLastInChainActionableEvents(): Unreported completion, currentKey->{}", currentKey);
+                endedJourneyList.add(getResolvedTask(currentKey, currentRecord));
+            }
         }
+        getLogger().debug(".getLastInChainActionableEvents(): Exit, number of entries->{}", endedJourneyList.size());
         return(endedJourneyList);
     }
 
+    /**
+     * Claims the task's journey report for this instance, for JOURNEY_REPORT_CLAIM_LEASE.
+     *
+     * @param taskKey the task
+     * @return true if claimed, false if currently claimed elsewhere (or backing off) and null if there is nothing to report
+     */
+    protected Boolean claimJourneyReport(DatagridElementKeyInterface taskKey){
+        ActionableTaskRecordReportClaim reportClaim = new ActionableTaskRecordReportClaim(Instant.now().toEpochMilli(), JOURNEY_REPORT_CLAIM_LEASE);
+        return(getTaskRecordReadWriteMap().eval(taskKey, reportClaim).join());
+    }
+
+    /**
+     * Queries (this instance's part of) the task cache's index for last-in-chain tasks that finished more than
+     * UNREPORTED_COMPLETION_GRACE_PERIOD ago, have still not been reported on and are neither claimed nor backing off.
+     *
+     * @return (up to UNREPORTED_COMPLETION_PAGE_SIZE of) the unreported completions, oldest first
+     */
+    protected List<PonosActionableTaskRecord> getUnreportedCompletions(){
+        QueryFactory queryFactory = Search.getQueryFactory(getTaskRecordCache());
+        Query<PonosActionableTaskRecord> query = queryFactory.create("FROM " + ACTIONABLE_TASK_RECORD_ENTITY + " r WHERE r.lastInChain = true AND r.journeyReported = false AND r.finishInstant < :finishedBefore AND r.reportAvailableInstant <= :now ORDER BY r.finishInstant ASC");
+        Instant now = Instant.now();
+        query.setParameter("finishedBefore", now.minusMillis(UNREPORTED_COMPLETION_GRACE_PERIOD).toEpochMilli());
+        query.setParameter("now", now.toEpochMilli());
+        query.local(true);
+        query.maxResults(UNREPORTED_COMPLETION_PAGE_SIZE);
+        List<PonosActionableTaskRecord> unreportedCompletions = new ArrayList<>();
+        for(PonosActionableTaskRecord currentRecord: query.execute().list()){
+            if(currentRecord.hasActionableTask() && currentRecord.getRegistration() != null && currentRecord.getRegistration().getActionableTaskId() != null){
+                unreportedCompletions.add(currentRecord);
+            }
+        }
+        return(unreportedCompletions);
+    }
+
+    /**
+     * Whether this Ponos instance is the primary owner of the given key, so that work driven by entries held on
+     * several owners (or seen by every instance) is done exactly once.
+     *
+     * @param key the cache key
+     * @return true if this instance is the key's primary owner (or the cache is not clustered)
+     */
+    protected boolean isPrimaryOwner(Object key){
+        DistributionManager distributionManager = getTaskRecordCache().getAdvancedCache().getDistributionManager();
+        if(distributionManager == null){
+            return(true);
+        }
+        return(distributionManager.getCacheTopology().getDistribution(key).isPrimary());
+    }
+
+    /**
+     * Whether this Ponos instance holds (a copy of) the given key's entry, i.e. whether a read of the key is served
+     * from this instance's own data container.
+     *
+     * @param key the cache key
+     * @return true if this instance is one of the key's read owners (or the cache is not clustered)
+     */
+    protected boolean isReadOwner(Object key){
+        DistributionManager distributionManager = getTaskRecordCache().getAdvancedCache().getDistributionManager();
+        if(distributionManager == null){
+            return(true);
+        }
+        return(distributionManager.getCacheTopology().getDistribution(key).isReadOwner());
+    }
+
     public boolean hasAlreadyBeenReportedOn(TaskIdType taskId){
-        PonosDatagridTaskKey entryKey = new PonosDatagridTaskKey(taskId);
-        if(getTaskJourneyReportedMap().containsKey(entryKey)){
-            return(getTaskJourneyReportedMap().get(entryKey));
-        } else {
-            getTaskJourneyReportedMap().put(entryKey, false);
+        PonosTaskCacheKey entryKey = PonosTaskCacheKey.fromTaskId(taskId);
+        PonosActionableTaskRecord record = getTaskRecordCache().get(entryKey);
+        if(record == null){
             return(false);
         }
+        return(record.isJourneyReported());
     }
 
+    /**
+     * Sets the task's journey-reported flag. The task is only removed from the completion queue once the flag has
+     * been written, so if the write fails (the exception is passed on) the task is reported again on the next run.
+     *
+     * @param taskId the task
+     * @param status whether the task's journey has been reported on
+     */
     public void setReportStatus(TaskIdType taskId, boolean status){
-        PonosDatagridTaskKey entryKey = new PonosDatagridTaskKey(taskId);
-        if(getTaskJourneyReportedMap().containsKey(entryKey)){
-            getTaskJourneyReportedMap().replace(entryKey, status);
-        } else {
-            getTaskJourneyReportedMap().put(entryKey, status);
+        PonosTaskCacheKey entryKey = PonosTaskCacheKey.fromTaskId(taskId);
+        getTaskRecordReadWriteMap().eval(entryKey, ActionableTaskRecordStateUpdate.journeyReported(status)).join();
+        if(status){
+            getTaskCompletionQueueMembership().remove(entryKey);
+        }
+    }
+
+    /**
+     * Records a failed attempt to report on the task's journey, releasing this instance's claim. The task is offered
+     * again once its back-off has passed, until JOURNEY_REPORT_MAX_ATTEMPTS attempts have failed - at which point the
+     * failure is recorded in the task's reporting state, its journey is marked as reported and it is dropped.
+     *
+     * @param taskId the task
+     * @return true if the task has now been given up on
+     */
+    public boolean recordReportFailure(TaskIdType taskId){
+        PonosTaskCacheKey entryKey = PonosTaskCacheKey.fromTaskId(taskId);
+        ActionableTaskRecordReportFailure reportFailure = new ActionableTaskRecordReportFailure(Instant.now().toEpochMilli(), JOURNEY_REPORT_RETRY_BACKOFF, JOURNEY_REPORT_MAX_ATTEMPTS);
+        boolean givenUp = Boolean.TRUE.equals(getTaskRecordReadWriteMap().eval(entryKey, reportFailure).join());
+        if(givenUp){
+            getTaskCompletionQueueMembership().remove(entryKey);
+        }
+        return(givenUp);
+    }
+
+    //
+    // Query
+    //
+
+    /**
+     * Returns (a page of) the tasks matching the query's criteria, resolved via the task cache's indexes rather than by
+     * scanning the cache.
+     *
+     * @param taskQuery the query criteria and page
+     * @return the page of matching tasks (with the total number of matches)
+     */
+    public PonosActionableTaskQueryResult queryPetasosActionableTasks(PonosActionableTaskQuery taskQuery){
+        getLogger().debug(".queryPetasosActionableTasks(): Entry, taskQuery->{}", taskQuery);
+        PonosActionableTaskQueryResult queryResult = new PonosActionableTaskQueryResult();
+        if(taskQuery == null){
+            getLogger().debug(".queryPetasosActionableTasks(): Exit, taskQuery is null");
+            return(queryResult);
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        List<String> conditions = new ArrayList<>();
+        if(taskQuery.getFulfillmentStatus() != null){
+            conditions.add("r.fulfillmentStatus = :fulfillmentStatus");
+            parameters.put("fulfillmentStatus", taskQuery.getFulfillmentStatus().name());
+        }
+        if(taskQuery.getOutcomeStatus() != null){
+            conditions.add("r.outcomeStatus = :outcomeStatus");
+            parameters.put("outcomeStatus", taskQuery.getOutcomeStatus().name());
+        }
+        if(taskQuery.getFulfillerParticipantName() != null){
+            conditions.add("r.fulfillerParticipantName = :fulfillerParticipantName");
+            parameters.put("fulfillerParticipantName", taskQuery.getFulfillerParticipantName());
+        }
+        if(taskQuery.getFulfillerComponentId() != null){
+            conditions.add("r.fulfillerComponentId = :fulfillerComponentId");
+            parameters.put("fulfillerComponentId", taskQuery.getFulfillerComponentId().getId());
+        }
+        addInstantRange(conditions, parameters, "registrationInstant", taskQuery.getRegisteredFrom(), taskQuery.getRegisteredTo());
+        addInstantRange(conditions, parameters, "startInstant", taskQuery.getStartedFrom(), taskQuery.getStartedTo());
+        addInstantRange(conditions, parameters, "finishInstant", taskQuery.getFinishedFrom(), taskQuery.getFinishedTo());
+
+        StringBuilder queryStringBuilder = new StringBuilder("FROM " + ACTIONABLE_TASK_RECORD_ENTITY + " r");
+        if(!conditions.isEmpty()){
+            queryStringBuilder.append(" WHERE ");
+            queryStringBuilder.append(String.join(" AND ", conditions));
+        }
+        queryStringBuilder.append(" ORDER BY r.registrationInstant ASC");
+
+        QueryFactory queryFactory = Search.getQueryFactory(getTaskRecordCache());
+        Query<PonosActionableTaskRecord> query = queryFactory.create(queryStringBuilder.toString());
+        query.setParameters(parameters);
+        query.startOffset(taskQuery.getOffset());
+        query.maxResults(taskQuery.getPageSize());
+        QueryResult<PonosActionableTaskRecord> result = query.execute();
+
+        for(PonosActionableTaskRecord currentRecord: result.list()){
+            if(currentRecord.hasActionableTask() && currentRecord.getRegistration() != null && currentRecord.getRegistration().getActionableTaskId() != null){
+                DatagridElementKeyInterface currentKey = PonosTaskCacheKey.fromTaskId(currentRecord.getRegistration().getActionableTaskId());
+                queryResult.getTasks().add(getResolvedTask(currentKey, currentRecord));
+            }
+        }
+        queryResult.setOffset(taskQuery.getOffset());
+        queryResult.setPageSize(taskQuery.getPageSize());
+        queryResult.setTotalMatches(result.hitCount().orElse(queryResult.getTasks().size()));
+        getLogger().debug(".queryPetasosActionableTasks(): Exit, queryResult->{}", queryResult);
+        return(queryResult);
+    }
+
+    protected void addInstantRange(List<String> conditions, Map<String, Object> parameters, String fieldName, Instant from, Instant to){
+        if(from != null){
+            conditions.add("r." + fieldName + " >= :" + fieldName + "From");
+            parameters.put(fieldName + "From", from.toEpochMilli());
+        }
+        if(to != null){
+            conditions.add("r." + fieldName + " < :" + fieldName + "To");
+            parameters.put(fieldName + "To", to.toEpochMilli());
         }
     }
 
+    //
+    // Events
+    //
+
+    /**
+     * Subscribes to the (typed) task cache events - registered, status-changed, last-in-chain completed and retired -
+     * for tasks written anywhere in the cluster.
+     *
+     * @param subscriber the subscriber (called on the cache's notification thread, so it must not block)
+     */
+    public void addTaskCacheEventSubscriber(ActionableTaskCacheEventSubscriber subscriber){
+        getLogger().debug(".addTaskCacheEventSubscriber(): Entry, subscriber->{}", subscriber);
+        getTaskCacheEventPublisher().subscribe(subscriber);
+        getLogger().debug(".addTaskCacheEventSubscriber(): Exit");
+    }
+
+    public void removeTaskCacheEventSubscriber(ActionableTaskCacheEventSubscriber subscriber){
+        getLogger().debug(".removeTaskCacheEventSubscriber(): Entry, subscriber->{}", subscriber);
+        getTaskCacheEventPublisher().unsubscribe(subscriber);
+        getLogger().debug(".removeTaskCacheEventSubscriber(): Exit");
+    }
+
+    //
+    // Statistics
+    //
+
+    /**
+     * Summarises the (cluster wide) content of the task cache. Every member of the cluster counts the records it is the
+     * primary owner of, from its own index's stored fields (see ActionableTaskStatisticsCollector), and the
+     * per-instance counts are merged here - so each record is counted once, and neither the records nor a per-record
+     * partial are shipped. A member that does not answer within STATISTICS_COLLECTION_TIMEOUT is left out (and
+     * logged). Each call pages through every instance's index, so it is intended for a (slow) metrics cadence.
+     *
+     * @return the statistics for the whole task cache
+     */
+    public PonosActionableTaskStatistics getActionableTaskStatistics(){
+        getLogger().debug(".getActionableTaskStatistics(): Entry");
+        PonosActionableTaskStatistics statistics = new PonosActionableTaskStatistics();
+        try {
+            getTaskRecordCache().getCacheManager().executor()
+                    .timeout(STATISTICS_COLLECTION_TIMEOUT, TimeUnit.MILLISECONDS)
+                    .submitConsumer(new ActionableTaskStatisticsCollector(ACTIONABLE_TASK_CACHE_NAME), (address, nodeStatistics, throwable) -> {
+                        if(throwable != null){
+                            getLogger().warn(".getActionableTaskStatistics(): Unable to collect task cache statistics, address->{}, message->{}", address, ExceptionUtils.getMessage(throwable));
+                            return;
+                        }
+                        synchronized (statistics){
+                            statistics.merge(nodeStatistics);
+                        }
+                    })
+                    .join();
+        } catch(Exception ex){
+            getLogger().warn(".getActionableTaskStatistics(): Unable to collect task cache statistics, message->{}", ExceptionUtils.getMessage(ex));
+        }
+        getLogger().debug(".getActionableTaskStatistics(): Exit, statistics->{}", statistics);
+        return(statistics);
+    }
+
     //
     // Cache Cleanup
     //
 
+    /**
+     * Returns the keys of the tasks registered more than thresholdAge seconds ago. The expired buckets of the expiry
+     * index are consumed by this call, so each aged task is only returned once. Only the tasks this Ponos instance is
+     * (still) the primary owner of are returned, so each task is retired by exactly one instance.
+     *
+     * An aged key this instance is no longer the primary owner of, but still holds (as a backup owner), is not dropped:
+     * it is re-added to the expiry index as if registered now, so it is checked again one retirement age later - by
+     * when the primary owner has retired it (and the key is no longer held here), or this instance has become its
+     * primary owner again. A key this instance no longer holds at all is dropped: its new owners index it from their
+     * own topology re-scan.
+     *
+     * @param thresholdAge the age (in seconds) beyond which a task is considered aged
+     * @return the set of aged task keys
+     */
     public Set<DatagridElementKeyInterface> getAgedCacheContent(Long thresholdAge){
-        CacheSet<DatagridElementKeyInterface> datagridElementKeys = getTaskRegistrationCache().keySet();
-        Set<DatagridElementKeyInterface> agedTaskSet = new HashSet<>();
-        Instant now = Instant.now();
-        for(DatagridElementKeyInterface currentKey: datagridElementKeys){
-            PetasosActionableTaskRegistrationType petasosActionableTaskRegistration = getTaskRegistrationCache().get(currentKey);
-            if(petasosActionableTaskRegistration.getRegistrationInstant() == null){
-                petasosActionableTaskRegistration.setRegistrationInstant(Instant.now());
-            }
-            Long age = now.getEpochSecond() - petasosActionableTaskRegistration.getRegistrationInstant().getEpochSecond();
-            if(age > thresholdAge){
-                if(!agedTaskSet.contains(currentKey)){
-                    agedTaskSet.add(currentKey);
+        getLogger().debug(".getAgedCacheContent(): Entry, thresholdAge->{}", thresholdAge);
+        Set<DatagridElementKeyInterface> agedTaskSet = getTaskExpiryIndex().pollExpired(thresholdAge);
+        Instant deferredInstant = Instant.now();
+        int deferredCount = 0;
+        Iterator<DatagridElementKeyInterface> agedTaskIterator = agedTaskSet.iterator();
+        while(agedTaskIterator.hasNext()){
+            DatagridElementKeyInterface currentKey = agedTaskIterator.next();
+            if(!isPrimaryOwner(currentKey)){
+                agedTaskIterator.remove();
+                if(isReadOwner(currentKey)){
+                    getTaskExpiryIndex().addTask(currentKey, deferredInstant);
+                    deferredCount += 1;
                 }
             }
         }
+        getLogger().debug(".getAgedCacheContent(): Exit, number of aged entries->{}, deferred->{}", agedTaskSet.size(), deferredCount);
         return(agedTaskSet);
     }
 
+    /**
+     * Whether the task cache's memory use is bounded by the cache itself - i.e. it has a memory bound and overflows
+     * (passivates) to disk once it is reached - rather than only by the retirement of aged tasks.
+     *
+     * @return true if the task cache is memory bounded (with overflow)
+     */
+    public boolean isTaskCacheMemoryBounded(){
+        Configuration taskCacheConfiguration = getTaskRecordCache().getCacheConfiguration();
+        boolean memoryBounded = taskCacheConfiguration.memory().isEvictionEnabled() && taskCacheConfiguration.persistence().usingStores();
+        return(memoryBounded);
+    }
+
+    /**
+     * Returns when (epoch second) the oldest task currently known to this instance's expiry index was registered.
+     *
+     * @return the registration second of the oldest indexed task, or null if there are no tasks awaiting retirement
+     */
+    public Long getEarliestTaskRegistrationSecond(){
+        return(getTaskExpiryIndex().getEarliestRegistrationSecond());
+    }
+
+    /**
+     * Retires a task: its record is archived and then removed from the task cache - atomically, on the owner(s) of the
+     * record, and only if the record is still the revision that was archived (see ActionableTaskRecordRetirement). A
+     * record that changes in the meantime is re-read and re-archived; one that keeps changing is left in place and
+     * re-indexed for a later retirement pass. Only once the record has been removed is it taken out of the component
+     * index and are its payloads released, so the index and payload store always follow the record actually removed.
+     *
+     * No lock is held - retirements of different tasks, and the reporting/merge paths, never wait on one another.
+     *
+     * @param key the (task cache) key of the task to retire
+     */
     public void clearTaskFromCache(DatagridElementKeyInterface key){
-        if(key != null) {
-            synchronized (getTaskCacheLock()) {
-                getTaskCache().remove(key);
-                getTaskRegistrationCache().remove(key);
-                getTaskJourneyReportedMap().remove(key);
+        if(key == null){
+            return;
+        }
+        for(int attempt = 0; attempt < TASK_RETIREMENT_ATTEMPTS; attempt += 1){
+            PonosActionableTaskRecord record = getTaskRecordCache().get(key);
+            if(record == null){
+                getTaskNearCache().invalidate(key);
+                return;
             }
+            archiveRetiredTask(key, record);
+            Boolean removed = getTaskRecordReadWriteMap().eval(key, new ActionableTaskRecordRetirement(record.getRevision())).join();
+            if(removed == null){
+                getTaskNearCache().invalidate(key);
+                return;
+            }
+            if(removed){
+                getTaskNearCache().invalidate(key);
+                if(record.getRegistration() != null){
+                    List<CompletableFuture<Void>> indexFutures = new ArrayList<>();
+                    for(ComponentIdType currentComponentId: record.getRegistration().getFulfillmentProcessingPlants()){
+                        indexFutures.add(removeTaskFromComponentIndex(currentComponentId, key));
+                    }
+                    CompletableFuture.allOf(indexFutures.toArray(new CompletableFuture[0])).join();
+                }
+                getTaskPayloadStore().release(record.getPayloadHashes(), key);
+                return;
+            }
+            getLogger().trace(".clearTaskFromCache(): Record changed while retiring, re-reading, key->{}", key);
         }
+        getLogger().debug(".clearTaskFromCache(): Record still changing, deferring its retirement, key->{}", key);
+        getTaskExpiryIndex().addTask(key, Instant.now());
+    }
+
+    //
+    // Registration and Update (Merge) Helpers
+    //
+
+    /**
+     * Registers (or updates) a task: the task's payloads are externalised (and its references to them recorded) and
+     * then the whole record - registration (merged), task and reported flag - is written in one atomic operation on the
+     * owner(s) of the record.
+     *
+     * An update is first tried as an ActionableTaskStatusDelta - shipping the task's status and body digest only - and
+     * only if the owner finds more than the status has changed is the task externalised and merged in full.
+     *
+     * @param actionableTask
+     * @param integrationPoint
+     * @param refreshCheckInstant whether the checkInstant of an existing registration is to be refreshed (i.e. whether
+     *                            this is an update)
+     * @return the (merged) registration
+     */
+    protected PetasosActionableTaskRegistrationType mergePetasosActionableTask(PetasosActionableTask actionableTask, JGroupsIntegrationPointSummary integrationPoint, boolean refreshCheckInstant){
+        PonosTaskCacheKey entryKey = PonosTaskCacheKey.fromTaskId(actionableTask.getTaskId());
+        getTaskNearCache().invalidate(entryKey);
+        getTaskNegativeCache().clearMiss(entryKey);
+        if(refreshCheckInstant){
+            ActionableTaskStatusDelta statusDelta = new ActionableTaskStatusDelta(actionableTask, getTaskPayloadStore().digestTaskBody(actionableTask), integrationPoint.getProcessingPlantInstanceId());
+            PetasosActionableTaskRegistrationType actionableTaskRegistration = getTaskRecordReadWriteMap().eval(entryKey, statusDelta).join();
+            if(actionableTaskRegistration != null){
+                completeMerge(entryKey, actionableTask, statusDelta, actionableTaskRegistration).join();
+                return(actionableTaskRegistration);
+            }
+            getLogger().trace(".mergePetasosActionableTask(): More than the status has changed, merging the whole task, entryKey->{}", entryKey);
+        }
+        PonosExternalisedTask externalisedTask = getTaskPayloadStore().externalise(actionableTask, entryKey);
+        externalisedTask.getPayloadReferencesFuture().join();
+        ActionableTaskRecordMerge recordMerge = new ActionableTaskRecordMerge(externalisedTask.getStoredTask(), externalisedTask.getPayloadHashes(), externalisedTask.getBodyDigest(), integrationPoint.getProcessingPlantInstanceId(), refreshCheckInstant);
+        PetasosActionableTaskRegistrationType actionableTaskRegistration = getTaskRecordReadWriteMap().eval(entryKey, recordMerge).join();
+        completeMerge(entryKey, actionableTask, recordMerge, actionableTaskRegistration).join();
+        return(actionableTaskRegistration);
+    }
+
+    /**
+     * As per mergePetasosActionableTask(), but without blocking: the body digest (or payload externalisation) is
+     * computed on the completion executor, the record merge is issued once the payload references have been recorded,
+     * and the index/queue side is issued from the completion executor once the merge has completed. No step waits on a
+     * cache write, and the (serialisation heavy) digesting and externalisation run on neither the caller's thread nor
+     * the cache's.
+     *
+     * @param actionableTask
+     * @param integrationPoint
+     * @param refreshCheckInstant whether the checkInstant of an existing registration is to be refreshed (i.e. whether
+     *                            this is an update)
+     * @return a future of the (merged) registration
+     */
+    protected CompletableFuture<PetasosActionableTaskRegistrationType> mergePetasosActionableTaskAsync(PetasosActionableTask actionableTask, JGroupsIntegrationPointSummary integrationPoint, boolean refreshCheckInstant){
+        PonosTaskCacheKey entryKey = PonosTaskCacheKey.fromTaskId(actionableTask.getTaskId());
+        getTaskNearCache().invalidate(entryKey);
+        getTaskNegativeCache().clearMiss(entryKey);
+        ComponentIdType processingPlantInstanceId = integrationPoint.getProcessingPlantInstanceId();
+        if(!refreshCheckInstant){
+            return(fullMergeAsync(entryKey, actionableTask, processingPlantInstanceId, false));
+        }
+        CompletableFuture<PetasosActionableTaskRegistrationType> registrationFuture = CompletableFuture
+                .supplyAsync(() -> new ActionableTaskStatusDelta(actionableTask, getTaskPayloadStore().digestTaskBody(actionableTask), processingPlantInstanceId), getTaskCacheCompletionExecutor())
+                .thenCompose(statusDelta -> getTaskRecordReadWriteMap().eval(entryKey, statusDelta)
+                        .thenComposeAsync(actionableTaskRegistration -> {
+                            if(actionableTaskRegistration == null){
+                                getLogger().trace(".mergePetasosActionableTaskAsync(): More than the status has changed, merging the whole task, entryKey->{}", entryKey);
+                                return(fullMergeAsync(entryKey, actionableTask, processingPlantInstanceId, true));
+                            }
+                            return(completeMerge(entryKey, actionableTask, statusDelta, actionableTaskRegistration)
+                                    .thenApply(indexed -> actionableTaskRegistration));
+                        }, getTaskCacheCompletionExecutor()));
+        return(registrationFuture);
+    }
+
+    /**
+     * The full (externalise then merge) part of mergePetasosActionableTaskAsync().
+     *
+     * @param entryKey
+     * @param actionableTask
+     * @param processingPlantInstanceId
+     * @param refreshCheckInstant whether the checkInstant of an existing registration is to be refreshed
+     * @return a future of the (merged) registration
+     */
+    protected CompletableFuture<PetasosActionableTaskRegistrationType> fullMergeAsync(PonosTaskCacheKey entryKey, PetasosActionableTask actionableTask, ComponentIdType processingPlantInstanceId, boolean refreshCheckInstant){
+        CompletableFuture<PetasosActionableTaskRegistrationType> registrationFuture = CompletableFuture
+                .supplyAsync(() -> getTaskPayloadStore().externalise(actionableTask, entryKey), getTaskCacheCompletionExecutor())
+                .thenCompose(externalisedTask -> {
+                    ActionableTaskRecordMerge recordMerge = new ActionableTaskRecordMerge(externalisedTask.getStoredTask(), externalisedTask.getPayloadHashes(), externalisedTask.getBodyDigest(), processingPlantInstanceId, refreshCheckInstant);
+                    return(externalisedTask.getPayloadReferencesFuture()
+                            .thenCompose(referencesRecorded -> getTaskRecordReadWriteMap().eval(entryKey, recordMerge))
+                            .thenComposeAsync(actionableTaskRegistration -> completeMerge(entryKey, actionableTask, recordMerge, actionableTaskRegistration)
+                                    .thenApply(indexed -> actionableTaskRegistration), getTaskCacheCompletionExecutor()));
+                });
+        return(registrationFuture);
+    }
+
+    /**
+     * Completes the index/queue side of a (completed) record merge. The component index updates are issued, not
+     * waited on: the task is queued (if it is last-in-chain) once they have completed.
+     *
+     * @param entryKey
+     * @param actionableTask
+     * @param recordMerge
+     * @param actionableTaskRegistration the (merged) registration
+     * @return a future that completes once the component index has been updated
+     */
+    protected CompletableFuture<Void> completeMerge(DatagridElementKeyInterface entryKey, PetasosActionableTask actionableTask, ActionableTaskRecordMerge recordMerge, PetasosActionableTaskRegistrationType actionableTaskRegistration){
+        if(recordMerge.createdRegistration(actionableTaskRegistration)){
+            markRegistered(actionableTask, actionableTaskRegistration);
+        }
+        return(indexTaskStatus(actionableTaskRegistration, entryKey, actionableTask)
+                .thenRun(() -> queueIfLastInChain(entryKey, actionableTask)));
+    }
+
+    /**
+     * Registers (or updates) a batch of tasks: the payloads of every task are externalised (their references recorded
+     * concurrently), the record merges are evaluated in one evalMany() operation, then the component index is updated
+     * once per component.
+     *
+     * An update batch is first evaluated as ActionableTaskStatusDeltas (again in one evalMany() operation); only the
+     * tasks for which more than the status has changed are then externalised and merged in full.
+     *
+     * @param actionableTasks
+     * @param integrationPoint
+     * @param refreshCheckInstant whether the checkInstant of existing registrations is to be refreshed (i.e. whether
+     *                            this is an update)
+     * @return the (merged) registrations
+     */
+    protected List<PetasosActionableTaskRegistrationType> mergePetasosActionableTasks(Collection<PetasosActionableTask> actionableTasks, JGroupsIntegrationPointSummary integrationPoint, boolean refreshCheckInstant){
+        if(actionableTasks == null || actionableTasks.isEmpty()) {
+            return(new ArrayList<>());
+        }
+        Map<DatagridElementKeyInterface, PetasosActionableTask> taskBatch = new LinkedHashMap<>();
+        for(PetasosActionableTask currentTask: actionableTasks){
+            if(currentTask != null){
+                PonosTaskCacheKey currentKey = PonosTaskCacheKey.fromTaskId(currentTask.getTaskId());
+                taskBatch.put(currentKey, currentTask);
+                getTaskNearCache().invalidate(currentKey);
+                getTaskNegativeCache().clearMiss(currentKey);
+            }
+        }
+        Map<DatagridElementKeyInterface, PetasosActionableTaskRegistrationType> registrationBatch = new LinkedHashMap<>();
+        if(refreshCheckInstant){
+            Map<DatagridElementKeyInterface, ActionableTaskRecordMerge> deltaBatch = new HashMap<>();
+            for(Map.Entry<DatagridElementKeyInterface, PetasosActionableTask> currentEntry: taskBatch.entrySet()){
+                deltaBatch.put(currentEntry.getKey(), new ActionableTaskStatusDelta(currentEntry.getValue(), getTaskPayloadStore().digestTaskBody(currentEntry.getValue()), integrationPoint.getProcessingPlantInstanceId()));
+            }
+            evalMergeBatch(deltaBatch, taskBatch, registrationBatch);
+        }
+        Map<DatagridElementKeyInterface, ActionableTaskRecordMerge> mergeBatch = new HashMap<>();
+        List<CompletableFuture<Void>> payloadReferenceFutures = new ArrayList<>();
+        for(Map.Entry<DatagridElementKeyInterface, PetasosActionableTask> currentEntry: taskBatch.entrySet()){
+            if(!registrationBatch.containsKey(currentEntry.getKey())){
+                PonosExternalisedTask externalisedTask = getTaskPayloadStore().externalise(currentEntry.getValue(), currentEntry.getKey());
+                payloadReferenceFutures.add(externalisedTask.getPayloadReferencesFuture());
+                mergeBatch.put(currentEntry.getKey(), new ActionableTaskRecordMerge(externalisedTask.getStoredTask(), externalisedTask.getPayloadHashes(), externalisedTask.getBodyDigest(), integrationPoint.getProcessingPlantInstanceId(), refreshCheckInstant));
+            }
+        }
+        CompletableFuture.allOf(payloadReferenceFutures.toArray(new CompletableFuture[0])).join();
+        evalMergeBatch(mergeBatch, taskBatch, registrationBatch);
+        indexTaskBatch(taskBatch, registrationBatch);
+        return(new ArrayList<>(registrationBatch.values()));
+    }
+
+    /**
+     * Evaluates a batch of record merges (full or delta) in one evalMany() operation, collecting the (merged)
+     * registrations - a delta that was not applied returns no registration, so its task is left out.
+     *
+     * @param mergeBatch the merge of each task
+     * @param taskBatch the (caller's instances of the) tasks
+     * @param registrationBatch the (merged) registrations, added to
+     */
+    protected void evalMergeBatch(Map<DatagridElementKeyInterface, ActionableTaskRecordMerge> mergeBatch, Map<DatagridElementKeyInterface, PetasosActionableTask> taskBatch, Map<DatagridElementKeyInterface, PetasosActionableTaskRegistrationType> registrationBatch){
+        if(mergeBatch.isEmpty()){
+            return;
+        }
+        List<PetasosActionableTaskRegistrationType> registrations = getTaskRecordReadWriteMap()
+                .evalMany(mergeBatch, new ActionableTaskRecordMergeFunction())
+                .collect(Collectors.toList());
+        for(PetasosActionableTaskRegistrationType currentRegistration: registrations){
+            if(currentRegistration == null){
+                continue;
+            }
+            PonosTaskCacheKey currentKey = PonosTaskCacheKey.fromTaskId(currentRegistration.getActionableTaskId());
+            registrationBatch.put(currentKey, currentRegistration);
+            if(mergeBatch.get(currentKey).createdRegistration(currentRegistration)){
+                markRegistered(taskBatch.get(currentKey), currentRegistration);
+            }
+        }
+    }
+
+    /**
+     * Mirrors, onto the caller's instance of a newly registered task, the registration details that the record merge
+     * applied to the stored instance.
+     *
+     * @param actionableTask
+     * @param actionableTaskRegistration
+     */
+    protected void markRegistered(PetasosActionableTask actionableTask, PetasosActionableTaskRegistrationType actionableTaskRegistration){
+        actionableTask.setRegistered(true);
+        actionableTask.getTaskFulfillment().setRegistrationInstant(actionableTaskRegistration.getRegistrationInstant());
+    }
+
+    /**
+     * Updates the component index (one write per component) and the completion queue for a batch of (already written)
+     * tasks.
+     *
+     * @param taskBatch
+     * @param registrationBatch the (merged) registrations of the tasks
+     */
+    protected void indexTaskBatch(Map<DatagridElementKeyInterface, PetasosActionableTask> taskBatch, Map<DatagridElementKeyInterface, PetasosActionableTaskRegistrationType> registrationBatch){
+        Map<ComponentIdType, Map<DatagridElementKeyInterface, FulfillmentExecutionStatusEnum>> componentStatusBatch = new HashMap<>();
+        for(Map.Entry<DatagridElementKeyInterface, PetasosActionableTaskRegistrationType> currentEntry: registrationBatch.entrySet()){
+            FulfillmentExecutionStatusEnum status = resolveFulfillmentStatus(taskBatch.get(currentEntry.getKey()));
+            for(ComponentIdType currentComponentId: currentEntry.getValue().getFulfillmentProcessingPlants()){
+                componentStatusBatch.computeIfAbsent(currentComponentId, k -> new HashMap<>()).put(currentEntry.getKey(), status);
+            }
+        }
+        List<CompletableFuture<Void>> indexFutures = new ArrayList<>();
+        for(Map.Entry<ComponentIdType, Map<DatagridElementKeyInterface, FulfillmentExecutionStatusEnum>> currentEntry: componentStatusBatch.entrySet()){
+            indexFutures.add(indexTaskStatuses(currentEntry.getKey(), currentEntry.getValue()));
+        }
+        CompletableFuture.allOf(indexFutures.toArray(new CompletableFuture[0])).join();
+        for(Map.Entry<DatagridElementKeyInterface, PetasosActionableTask> currentEntry: taskBatch.entrySet()){
+            queueIfLastInChain(currentEntry.getKey(), currentEntry.getValue());
+        }
+    }
+
+    //
+    // Record Access
+    //
+
+    /**
+     * Returns the (resolved) task held under the given key - a shared, read-only snapshot (see getResolvedTask()) -
+     * reading through to the archive if the task has been retired.
+     *
+     * @param taskKey
+     * @return the task, or null if it is not in the cache
+     */
+    protected PetasosActionableTask getCachedTask(DatagridElementKeyInterface taskKey){
+        PetasosActionableTask nearTask = getTaskNearCache().get(taskKey);
+        if(nearTask != null){
+            return(nearTask);
+        }
+        long nearCacheStamp = getTaskNearCache().beginRead(taskKey);
+        PonosActionableTaskRecord record = getTaskRecordCache().get(taskKey);
+        if(record == null){
+            record = getArchivedRecord(taskKey);
+        }
+        if(record == null){
+            return(null);
+        }
+        PetasosActionableTask actionableTask = getResolvedTask(taskKey, record);
+        getTaskNearCache().putIfNotInvalidated(taskKey, actionableTask, nearCacheStamp);
+        return(actionableTask);
+    }
+
+    /**
+     * Returns the record's task with its payloads resolved, without a copy per read:
+     * - a task without externalised payloads is returned as stored;
+     * - a record this instance holds is the cache's own instance, so its task is resolved into a copy once and the
+     *   copy memoised on the record (a record is never modified, only replaced);
+     * - a record read from another owner is the caller's own (deserialised) instance, so its task is resolved in place.
+     *
+     * Either way the task is shared with later readers of the same record, so it must not be modified.
+     *
+     * @param taskKey the (task cache) key of the record
+     * @param record the record, as read from the task cache
+     * @return the resolved task, or null if the record has none
+     */
+    protected PetasosActionableTask getResolvedTask(DatagridElementKeyInterface taskKey, PonosActionableTaskRecord record){
+        if(record == null || !record.hasActionableTask()){
+            return(null);
+        }
+        if(record.getPayloadHashes().isEmpty()){
+            return(record.getActionableTask());
+        }
+        PetasosActionableTask resolvedTask = record.getResolvedTask();
+        if(resolvedTask != null){
+            return(resolvedTask);
+        }
+        if(isReadOwner(taskKey)){
+            resolvedTask = getTaskPayloadStore().resolve(record.getActionableTask());
+        } else {
+            resolvedTask = getTaskPayloadStore().resolveInPlace(record.getActionableTask());
+        }
+        record.setResolvedTask(resolvedTask);
+        return(resolvedTask);
+    }
+
+    /**
+     * Reads a retired task's record from the archive, unless the task is a known miss. An archived record holds its
+     * task resolved (it references no payloads), so it is returned as-is by getResolvedTask().
+     *
+     * @param taskKey the (task cache) key of the task
+     * @return the archived record, or null if the task is in neither the task cache nor the archive
+     */
+    protected PonosActionableTaskRecord getArchivedRecord(DatagridElementKeyInterface taskKey){
+        if(getTaskNegativeCache().isKnownMiss(taskKey)){
+            return(null);
+        }
+        PonosActionableTaskRecord archivedRecord = getTaskArchiveCache().get(taskKey);
+        if(archivedRecord == null){
+            getTaskNegativeCache().recordMiss(taskKey);
+        }
+        return(archivedRecord);
+    }
+
+    protected CompletableFuture<PetasosActionableTask> getArchivedTaskAsync(DatagridElementKeyInterface taskKey){
+        if(getTaskNegativeCache().isKnownMiss(taskKey)){
+            return(CompletableFuture.completedFuture(null));
+        }
+        return(getTaskArchiveCache().getAsync(taskKey)
+                .thenApply(archivedRecord -> {
+                    if(archivedRecord == null){
+                        getTaskNegativeCache().recordMiss(taskKey);
+                        return(null);
+                    }
+                    return(archivedRecord.getActionableTask());
+                }));
+    }
+
+    /**
+     * Moves a (retiring) task into the archive, with its payloads resolved - so the archived copy holds no references
+     * into the payload store, which are released when the task leaves the task cache.
+     *
+     * @param taskKey the (task cache) key of the task
+     * @param record the task's (live) record
+     */
+    protected void archiveRetiredTask(DatagridElementKeyInterface taskKey, PonosActionableTaskRecord record){
+        if(record == null || !record.hasActionableTask()){
+            return;
+        }
+        PonosActionableTaskRecord archivedRecord = new PonosActionableTaskRecord(getResolvedTask(taskKey, record), record.getRegistration(), record.isJourneyReported(), null);
+        getTaskArchiveCache().getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).put(taskKey, archivedRecord, getTaskArchiveRetention(), TimeUnit.MILLISECONDS);
+    }
+
+    //
+    // Completion Queue
+    //
+
+    protected void queueIfLastInChain(DatagridElementKeyInterface taskKey, PetasosActionableTask actionableTask){
+        if(actionableTask.hasTaskCompletionSummary()){
+            if(actionableTask.getTaskCompletionSummary().isLastInChain()){
+                if(getTaskCompletionQueueMembership().add(taskKey)){
+                    getTaskCompletionQueue().offer(taskKey);
+                }
+            }
+        }
+    }
+
+    //
+    // Component Index
+    //
+
+    /**
+     * Places the task (key) into the status partition matching the task's current FulfillmentExecutionStatusEnum
+     * for every component (ProcessingPlant) that is fulfilling it.
+     *
+     * @param registration
+     * @param taskKey
+     * @param actionableTask
+     * @return a future that completes once every component's index entry has been updated
+     */
+    protected CompletableFuture<Void> indexTaskStatus(PetasosActionableTaskRegistrationType registration, DatagridElementKeyInterface taskKey, PetasosActionableTask actionableTask){
+        FulfillmentExecutionStatusEnum status = resolveFulfillmentStatus(actionableTask);
+        List<CompletableFuture<Void>> indexFutures = new ArrayList<>();
+        for(ComponentIdType currentComponentId: registration.getFulfillmentProcessingPlants()){
+            indexFutures.add(indexTaskStatus(currentComponentId, taskKey, status));
+        }
+        return(CompletableFuture.allOf(indexFutures.toArray(new CompletableFuture[0])));
+    }
+
+    /**
+     * Places the task (key) into the given status partition of the component's (ProcessingPlant's) index entry. The
+     * change is shipped to (and applied on) the owner(s) of the entry, as an ActionableTaskComponentIndexUpdate.
+     *
+     * @param componentId
+     * @param taskKey
+     * @param status
+     * @return a future that completes once the update has been applied
+     */
+    protected CompletableFuture<Void> indexTaskStatus(ComponentIdType componentId, DatagridElementKeyInterface taskKey, FulfillmentExecutionStatusEnum status){
+        getLogger().debug(".indexTaskStatus(): Entry, componentId->{}, taskKey->{}, status->{}", componentId, taskKey, status);
+        if(componentId == null || taskKey == null){
+            getLogger().debug(".indexTaskStatus(): Exit, componentId or taskKey is null");
+            return(CompletableFuture.completedFuture(null));
+        }
+        CompletableFuture<Void> indexFuture = getTaskComponentIndexReadWriteMap().eval(componentId, ActionableTaskComponentIndexUpdate.taskStatus(taskKey, status));
+        getLogger().debug(".indexTaskStatus(): Exit");
+        return(indexFuture);
+    }
+
+    /**
+     * Places each of the task (keys) into its given status partition of the component's (ProcessingPlant's) index
+     * entry, as one update for the whole batch.
+     *
+     * @param componentId
+     * @param taskStatuses
+     * @return a future that completes once the update has been applied
+     */
+    protected CompletableFuture<Void> indexTaskStatuses(ComponentIdType componentId, Map<DatagridElementKeyInterface, FulfillmentExecutionStatusEnum> taskStatuses){
+        getLogger().debug(".indexTaskStatuses(): Entry, componentId->{}, number of tasks->{}", componentId, taskStatuses.size());
+        if(componentId == null){
+            getLogger().debug(".indexTaskStatuses(): Exit, componentId is null");
+            return(CompletableFuture.completedFuture(null));
+        }
+        CompletableFuture<Void> indexFuture = getTaskComponentIndexReadWriteMap().eval(componentId, ActionableTaskComponentIndexUpdate.taskStatuses(taskStatuses));
+        getLogger().debug(".indexTaskStatuses(): Exit");
+        return(indexFuture);
+    }
+
+    /**
+     * Removes the task (key) from the index entry of the given component (ProcessingPlant) - the owner(s) remove the
+     * component's entry altogether once it has no tasks left.
+     *
+     * @param componentId
+     * @param taskKey
+     * @return a future that completes once the update has been applied
+     */
+    protected CompletableFuture<Void> removeTaskFromComponentIndex(ComponentIdType componentId, DatagridElementKeyInterface taskKey){
+        getLogger().debug(".removeTaskFromComponentIndex(): Entry, componentId->{}, taskKey->{}", componentId, taskKey);
+        if(componentId == null || taskKey == null){
+            getLogger().debug(".removeTaskFromComponentIndex(): Exit, componentId or taskKey is null");
+            return(CompletableFuture.completedFuture(null));
+        }
+        CompletableFuture<Void> indexFuture = getTaskComponentIndexReadWriteMap().eval(componentId, ActionableTaskComponentIndexUpdate.removeTask(taskKey));
+        getLogger().debug(".removeTaskFromComponentIndex(): Exit");
+        return(indexFuture);
+    }
+
+    protected Set<DatagridElementKeyInterface> getComponentTaskKeys(ComponentIdType componentId){
+        PonosComponentTaskIndexEntry indexEntry = getTaskComponentIndex().get(componentId);
+        if(indexEntry == null){
+            return(new HashSet<>());
+        }
+        return(indexEntry.getAllTaskKeys());
+    }
+
+    protected Set<DatagridElementKeyInterface> getComponentTaskKeys(ComponentIdType componentId, FulfillmentExecutionStatusEnum status){
+        PonosComponentTaskIndexEntry indexEntry = getTaskComponentIndex().get(componentId);
+        if(indexEntry == null){
+            return(new HashSet<>());
+        }
+        return(indexEntry.getTaskKeys(status));
+    }
+
+    protected FulfillmentExecutionStatusEnum resolveFulfillmentStatus(PetasosActionableTask actionableTask){
+        if(actionableTask == null || actionableTask.getTaskFulfillment() == null){
+            return(null);
+        }
+        return(actionableTask.getTaskFulfillment().getStatus());
     }
 
     //
     // Cache Size Information
     public int getTaskCacheSize(){
-        int size = getTaskCache().size();
+        int size = getTaskRecordCache().size();
         return(size);
     }
 
@@ -381,8 +1501,13 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
         return(size);
     }
 
+    /**
+     * Each (task) record carries the task's registration, so this is the number of records.
+     *
+     * @return the number of registered tasks
+     */
     public int getTaskRegistrationCacheSize(){
-        int size = getTaskRegistrationCache().size();
+        int size = getTaskRecordCache().size();
         return(size);
     }
 
@@ -395,12 +1520,12 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
         return (LOG);
     }
 
-    protected Cache<DatagridElementKeyInterface, PetasosActionableTask> getTaskCache(){
-        return(this.taskCache);
+    protected Cache<DatagridElementKeyInterface, PonosActionableTaskRecord> getTaskRecordCache(){
+        return(this.taskRecordCache);
     }
 
-    protected Cache<DatagridElementKeyInterface, PetasosActionableTaskRegistrationType> getTaskRegistrationCache(){
-        return(this.taskRegistrationCache);
+    protected FunctionalMap.ReadWriteMap<DatagridElementKeyInterface, PonosActionableTaskRecord> getTaskRecordReadWriteMap(){
+        return(this.taskRecordReadWriteMap);
     }
 
     protected Cache<DataParcelTypeDescriptor, DatagridPersistenceServiceRegistrationType> getTaskPersistenceServiceCache(){
@@ -415,11 +1540,55 @@ public class PonosPetasosActionableTaskCacheServices extends PetasosActionableTa
         return datagridEntrySaveRequestService;
     }
 
-    private Object getTaskCacheLock(){
-        return(taskCacheLock);
+    protected Cache<ComponentIdType, PonosComponentTaskIndexEntry> getTaskComponentIndex(){
+        return(this.taskComponentIndex);
+    }
+
+    protected Cache<String, PonosPayloadEntry> getTaskPayloadStoreCache(){
+        return(this.taskPayloadStoreCache);
+    }
+
+    public PonosPayloadStore getTaskPayloadStore(){
+        return(this.taskPayloadStore);
+    }
+
+    protected FunctionalMap.ReadWriteMap<ComponentIdType, PonosComponentTaskIndexEntry> getTaskComponentIndexReadWriteMap(){
+        return(this.taskComponentIndexReadWriteMap);
+    }
+
+    protected ConcurrentLinkedQueue<DatagridElementKeyInterface> getTaskCompletionQueue(){
+        return(this.taskCompletionQueue);
+    }
+
+    protected Set<DatagridElementKeyInterface> getTaskCompletionQueueMembership(){
+        return(this.taskCompletionQueueMembership);
+    }
+
+    protected Cache<DatagridElementKeyInterface, PonosActionableTaskRecord> getTaskArchiveCache(){
+        return(this.taskArchiveCache);
+    }
+
+    protected long getTaskArchiveRetention(){
+        return(this.taskArchiveRetention);
+    }
+
+    protected ActionableTaskNegativeCache getTaskNegativeCache(){
+        return(this.taskNegativeCache);
+    }
+
+    protected ActionableTaskExpiryIndex getTaskExpiryIndex(){
+        return(this.taskExpiryIndex);
+    }
+
+    public ActionableTaskNearCache getTaskNearCache(){
+        return(this.taskNearCache);
+    }
+
+    protected ActionableTaskCacheEventPublisher getTaskCacheEventPublisher(){
+        return(this.taskCacheEventPublisher);
     }
 
-    private Cache<DatagridElementKeyInterface, Boolean> getTaskJourneyReportedMap(){
-        return(this.taskJourneyReportedMap);
+    protected ExecutorService getTaskCacheCompletionExecutor(){
+        return(this.taskCacheCompletionExecutor);
     }
 }
@@ -46,6 +46,11 @@ public class PonosPetasosParticipantCacheServices {
 
     private boolean initialised;
 
+    private static final String PETASOS_PARTICIPANT_REGISTRATION_CACHE_NAME = "PetasosParticipantRegistrationCache";
+    private static final String PETASOS_PARTICIPANT_COMPONENT_ID_MAP_NAME = "PetasosParticipantComponentIdMap";
+    private static final String TASK_PRODUCER_CONSUMER_MAP_NAME = "TaskProducerConsumerMap";
+    private static final String PETASOS_PARTICIPANT_SERVICE_MAP_NAME = "PetasosParticipantServiceMap";
+
     // Cache<registrationId, publisherRegistration>
     private Cache<String, PetasosParticipantRegistration> petasosParticipantRegistrationCache;
     private Object petasosParticipantRegistrationCacheLock;
@@ -89,10 +94,10 @@ public class PonosPetasosParticipantCacheServices {
             getLogger().info(".initialise(): Initialisation Start");
 
             getLogger().info(".initialise(): [Initialising Caches] Start");
-            petasosParticipantRegistrationCache = replicatedCacheServices.getCacheManager().createCache("PetasosParticipantRegistrationCache", replicatedCacheServices.getCacheConfigurationBuild());
-            petasosParticipantComponentIdMap = replicatedCacheServices.getCacheManager().createCache("PetasosParticipantComponentIdMap", replicatedCacheServices.getCacheConfigurationBuild());
-            producerTaskConsumerMap = replicatedCacheServices.getCacheManager().createCache("TaskProducerConsumerMap", replicatedCacheServices.getCacheConfigurationBuild());
-            participantServiceNameToPetasosParticipantRegistration = replicatedCacheServices.getCacheManager().createCache("PetasosParticipantServiceMap", replicatedCacheServices.getCacheConfigurationBuild());
+            petasosParticipantRegistrationCache = replicatedCacheServices.getCacheManager().createCache(PETASOS_PARTICIPANT_REGISTRATION_CACHE_NAME, replicatedCacheServices.getCacheConfigurationBuild(PETASOS_PARTICIPANT_REGISTRATION_CACHE_NAME));
+            petasosParticipantComponentIdMap = replicatedCacheServices.getCacheManager().createCache(PETASOS_PARTICIPANT_COMPONENT_ID_MAP_NAME, replicatedCacheServices.getCacheConfigurationBuild(PETASOS_PARTICIPANT_COMPONENT_ID_MAP_NAME));
+            producerTaskConsumerMap = replicatedCacheServices.getCacheManager().createCache(TASK_PRODUCER_CONSUMER_MAP_NAME, replicatedCacheServices.getCacheConfigurationBuild(TASK_PRODUCER_CONSUMER_MAP_NAME));
+            participantServiceNameToPetasosParticipantRegistration = replicatedCacheServices.getCacheManager().createCache(PETASOS_PARTICIPANT_SERVICE_MAP_NAME, replicatedCacheServices.getCacheConfigurationBuild(PETASOS_PARTICIPANT_SERVICE_MAP_NAME));
             getLogger().info(".initialise(): [Initialising Caches] End");
 
             this.initialised = true;
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.archive;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local (this Ponos instance) record of the task keys that were found in neither the task cache nor its archive, so
+ * repeated lookups of the same missing task (e.g. the journey tasks of every report on a journey that outlasted the
+ * archive) do not each cost a (remote) archive read.
+ *
+ * A miss is forgotten once its retention has passed, or as soon as this instance registers the task. The record is
+ * bounded by size as well, with the least valuable misses (Caffeine's W-TinyLFU) evicted first - it is never cleared
+ * wholesale.
+ */
+public class ActionableTaskNegativeCache {
+    private static final long DEFAULT_MISS_RETENTION = 10000L;
+    private static final long DEFAULT_MAX_COUNT = 10000L;
+
+    private Cache<DatagridElementKeyInterface, Boolean> misses;
+
+    //
+    // Constructor(s)
+    //
+
+    public ActionableTaskNegativeCache(){
+        this(DEFAULT_MISS_RETENTION, DEFAULT_MAX_COUNT);
+    }
+
+    public ActionableTaskNegativeCache(long missRetention, long maxCount){
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(maxCount)
+                .expireAfterWrite(missRetention, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    //
+    // Business Methods
+    //
+
+    public boolean isKnownMiss(DatagridElementKeyInterface taskKey){
+        if(taskKey == null){
+            return(false);
+        }
+        return(getMisses().getIfPresent(taskKey) != null);
+    }
+
+    public void recordMiss(DatagridElementKeyInterface taskKey){
+        if(taskKey != null){
+            getMisses().put(taskKey, Boolean.TRUE);
+        }
+    }
+
+    public void clearMiss(DatagridElementKeyInterface taskKey){
+        if(taskKey != null){
+            getMisses().invalidate(taskKey);
+        }
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    protected Cache<DatagridElementKeyInterface, Boolean> getMisses(){
+        return(misses);
+    }
+
+    public long getSize(){
+        return(getMisses().estimatedSize());
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskNegativeCache{" +
+                "size=" + getSize() +
+                '}';
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.core;
+
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosComponentTaskIndexEntry;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosTaskCacheKey;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload.PonosPayloadEntry;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.statistics.PonosCacheMemoryStatistics;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.context.Flag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Estimates the memory used by the (in-memory) entries this node holds for a cache, from a uniform (reservoir) sample
+ * of the entries. The entries are read in their storage form, so the entries of binary (OFF_HEAP) caches are measured
+ * exactly and without decoding. (Heap) object entries are never serialised: they are estimated from the lengths the
+ * Ponos datatypes already know - the String and byte[] content they hold, and the sizes of their collections - plus a
+ * fixed allowance per object and reference, so a multi-megabyte payload costs no more to measure than a small one.
+ * Objects the estimator knows nothing about (e.g. the externalised task held by a task record) are counted at
+ * UNKNOWN_OBJECT_BYTES. Entries that have overflowed to a store are neither loaded nor counted.
+ */
+public class PonosCacheMemoryEstimator {
+    private static final Logger LOG = LoggerFactory.getLogger(PonosCacheMemoryEstimator.class);
+
+    private static final int DEFAULT_SAMPLE_SIZE = 256;
+
+    // Fixed allowances (bytes) for the parts of an object entry whose size is not known from a length
+    private static final long OBJECT_HEADER_BYTES = 16L;
+    private static final long REFERENCE_BYTES = 8L;
+    private static final long STRING_OVERHEAD_BYTES = 40L;
+    private static final long COLLECTION_ELEMENT_BYTES = 32L;
+    private static final long TASK_CACHE_KEY_BYTES = 40L;
+    private static final long TASK_RECORD_FIELD_BYTES = 160L;
+    private static final long UNKNOWN_OBJECT_BYTES = 2048L;
+
+    private int sampleSize;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosCacheMemoryEstimator(){
+        this(DEFAULT_SAMPLE_SIZE);
+    }
+
+    public PonosCacheMemoryEstimator(int sampleSize){
+        this.sampleSize = sampleSize > 0 ? sampleSize : DEFAULT_SAMPLE_SIZE;
+    }
+
+    //
+    // Business Methods
+    //
+
+    /**
+     * Estimates the memory used by the cache's (local, in-memory) entries. Every entry is visited once, but only the
+     * entries drawn into the reservoir are sized - so the sample is uniform over the whole cache rather than biased to
+     * the front of its iteration order.
+     *
+     * @param cache the cache to estimate
+     * @return the cache's memory statistics
+     */
+    public PonosCacheMemoryStatistics estimate(Cache<?, ?> cache){
+        getLogger().debug(".estimate(): Entry, cache->{}", cache.getName());
+        PonosCacheMemoryStatistics statistics = new PonosCacheMemoryStatistics(cache.getName());
+        AdvancedCache<?, ?> localCache = cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL, Flag.SKIP_CACHE_LOAD);
+        statistics.setEntryCount(localCache.size());
+        long[] reservoir = new long[getSampleSize()];
+        int reservoirCount = 0;
+        long entriesSeen = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try(CloseableIterator<? extends Map.Entry<?, ?>> entryIterator = localCache.withStorageMediaType().entrySet().iterator()) {
+            while(entryIterator.hasNext()){
+                Map.Entry<?, ?> currentEntry = entryIterator.next();
+                entriesSeen += 1;
+                if(reservoirCount < reservoir.length){
+                    reservoir[reservoirCount] = sizeOf(currentEntry.getKey()) + sizeOf(currentEntry.getValue());
+                    reservoirCount += 1;
+                } else {
+                    long slot = random.nextLong(entriesSeen);
+                    if(slot < reservoir.length){
+                        reservoir[(int)slot] = sizeOf(currentEntry.getKey()) + sizeOf(currentEntry.getValue());
+                    }
+                }
+            }
+        } catch(Exception ex){
+            getLogger().warn(".estimate(): Unable to sample cache, cache->{}, message->{}", cache.getName(), ExceptionUtils.getMessage(ex));
+        }
+        for(int sample = 0; sample < reservoirCount; sample += 1){
+            statistics.addSample(reservoir[sample]);
+        }
+        getLogger().debug(".estimate(): Exit, statistics->{}", statistics);
+        return(statistics);
+    }
+
+    //
+    // Helpers
+    //
+
+    protected long sizeOf(Object storedObject){
+        if(storedObject == null){
+            return(0);
+        }
+        if(storedObject instanceof WrappedBytes){
+            return(((WrappedBytes)storedObject).getLength());
+        }
+        if(storedObject instanceof byte[]){
+            return(OBJECT_HEADER_BYTES + ((byte[])storedObject).length);
+        }
+        if(storedObject instanceof String){
+            return(STRING_OVERHEAD_BYTES + ((String)storedObject).length());
+        }
+        if(storedObject instanceof PonosTaskCacheKey){
+            return(TASK_CACHE_KEY_BYTES);
+        }
+        if(storedObject instanceof PonosPayloadEntry){
+            PonosPayloadEntry payloadEntry = (PonosPayloadEntry)storedObject;
+            return(OBJECT_HEADER_BYTES + 2 * REFERENCE_BYTES + sizeOf(payloadEntry.getPayloadContent()) + sizeOfElements(payloadEntry.getReferencingTasks(), REFERENCE_BYTES));
+        }
+        if(storedObject instanceof PonosActionableTaskRecord){
+            PonosActionableTaskRecord taskRecord = (PonosActionableTaskRecord)storedObject;
+            long recordBytes = OBJECT_HEADER_BYTES + TASK_RECORD_FIELD_BYTES;
+            recordBytes += sizeOf(taskRecord.getTaskId()) + sizeOf(taskRecord.getFulfillerParticipantName()) + sizeOf(taskRecord.getFulfillerComponentId()) + sizeOf(taskRecord.getBodyDigest());
+            recordBytes += sizeOf(taskRecord.getPayloadHashes());
+            if(taskRecord.hasActionableTask()){
+                recordBytes += UNKNOWN_OBJECT_BYTES;
+            }
+            if(taskRecord.getRegistration() != null){
+                recordBytes += UNKNOWN_OBJECT_BYTES;
+            }
+            return(recordBytes);
+        }
+        if(storedObject instanceof PonosComponentTaskIndexEntry){
+            PonosComponentTaskIndexEntry indexEntry = (PonosComponentTaskIndexEntry)storedObject;
+            // Each task is held twice: in its status partition and in the task status map
+            return(OBJECT_HEADER_BYTES + 2 * REFERENCE_BYTES + 2 * indexEntry.getTaskStatuses().size() * (COLLECTION_ELEMENT_BYTES + REFERENCE_BYTES));
+        }
+        if(storedObject instanceof Collection){
+            long collectionBytes = OBJECT_HEADER_BYTES;
+            for(Object currentElement: (Collection<?>)storedObject){
+                collectionBytes += COLLECTION_ELEMENT_BYTES + sizeOf(currentElement);
+            }
+            return(collectionBytes);
+        }
+        return(UNKNOWN_OBJECT_BYTES);
+    }
+
+    private long sizeOfElements(Collection<?> elements, long elementBytes){
+        if(elements == null){
+            return(0);
+        }
+        return(OBJECT_HEADER_BYTES + elements.size() * (COLLECTION_ELEMENT_BYTES + elementBytes));
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    protected Logger getLogger(){
+        return(LOG);
+    }
+
+    public int getSampleSize(){
+        return(sampleSize);
+    }
+}
@@ -23,16 +23,36 @@ package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.core;
 
 import net.fhirfactory.pegacorn.fhirim.workshops.datagrid.cache.common.BaseResourceReplicatedCacheServices;
 import net.fhirfactory.pegacorn.ponos.interfaces.PonosSubsystemDetailsInterface;
+import net.fhirfactory.pegacorn.ponos.interfaces.datatypes.PonosCacheProfile;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.statistics.PonosCacheMemoryStatistics;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.IndexStorage;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @ApplicationScoped
 public class PonosReplicatedCacheServices extends BaseResourceReplicatedCacheServices {
     private static final Logger LOG = LoggerFactory.getLogger(PonosReplicatedCacheServices.class);
 
+    private static final String DEFAULT_OVERFLOW_LOCATION = Paths.get(System.getProperty("java.io.tmpdir"), "ponos", "overflow").toString();
+
+    private PonosCacheMemoryEstimator cacheMemoryEstimator;
+
     @Inject
     private PonosSubsystemDetailsInterface ponosSubsystemDetails;
     //
@@ -41,6 +61,7 @@ public class PonosReplicatedCacheServices extends BaseResourceReplicatedCacheSer
 
     public PonosReplicatedCacheServices(){
         super();
+        this.cacheMemoryEstimator = new PonosCacheMemoryEstimator();
     }
 
     //
@@ -64,9 +85,220 @@ public class PonosReplicatedCacheServices extends BaseResourceReplicatedCacheSer
     }
 
     //
-    // Getters (and Setters)
+    // Cache Configurations
     //
 
+    /**
+     * The standard (replicated) cache configuration, tuned by the cache's profile (if one is defined within the
+     * Ponos configuration file).
+     *
+     * @param cacheName the name of the cache
+     * @return the cache configuration
+     */
+    public Configuration getCacheConfigurationBuild(String cacheName){
+        ConfigurationBuilder configurationBuilder = new ConfigurationBuilder();
+        configurationBuilder.read(getCacheConfigurationBuild());
+        applyCacheProfile(cacheName, configurationBuilder, false);
+        return(configurationBuilder.build());
+    }
+
+    /**
+     * As per getCacheConfigurationBuild(), for a cache whose entries must never be silently dropped (the cluster holds
+     * the only copy of in-flight tasks). The profile may not remove entries: a memory bound (maxCount/maxSize) is only
+     * applied when overflowToDisk is also set (so evicted entries are passivated, not deleted), and lifespan/maxIdle
+     * are ignored - each with a warning.
+     *
+     * @param cacheName the name of the cache
+     * @return the cache configuration
+     */
+    public Configuration getLosslessCacheConfigurationBuild(String cacheName){
+        ConfigurationBuilder configurationBuilder = new ConfigurationBuilder();
+        configurationBuilder.read(getCacheConfigurationBuild());
+        applyCacheProfile(cacheName, configurationBuilder, true);
+        return(configurationBuilder.build());
+    }
+
+    /**
+     * As per getCacheConfigurationBuild() (or getLosslessCacheConfigurationBuild()), with the given (Hibernate Search
+     * annotated) value classes indexed - so they can be queried without a scan. The indexes are held locally (in heap)
+     * by each node, for the entries that node holds.
+     *
+     * @param cacheName the name of the cache
+     * @param lossless whether the cache's entries must never be silently dropped
+     * @param indexedEntities the (annotated) value classes to index
+     * @return the cache configuration
+     */
+    public Configuration getIndexedCacheConfigurationBuild(String cacheName, boolean lossless, Class<?>... indexedEntities){
+        ConfigurationBuilder configurationBuilder = new ConfigurationBuilder();
+        configurationBuilder.read(getCacheConfigurationBuild());
+        configurationBuilder.indexing().enable().storage(IndexStorage.LOCAL_HEAP);
+        for(Class<?> currentEntity: indexedEntities){
+            configurationBuilder.indexing().addIndexedEntity(currentEntity);
+        }
+        applyCacheProfile(cacheName, configurationBuilder, lossless);
+        return(configurationBuilder.build());
+    }
+
+    protected void applyCacheProfile(String cacheName, ConfigurationBuilder configurationBuilder, boolean lossless){
+        getLogger().debug(".applyCacheProfile(): Entry, cacheName->{}", cacheName);
+        PonosCacheProfile profile = getCacheProfile(cacheName);
+        if(profile == null){
+            getLogger().debug(".applyCacheProfile(): Exit, no profile defined for cache, using standard configuration");
+            return;
+        }
+        getLogger().info(".applyCacheProfile(): Applying profile, cacheName->{}, profile->{}", cacheName, profile);
+        //
+        // Clustering
+        CacheMode cacheMode = configurationBuilder.clustering().cacheMode();
+        if(profile.getClusteringMode() != null){
+            switch(profile.getClusteringMode()){
+                case LOCAL:
+                    cacheMode = CacheMode.LOCAL;
+                    break;
+                case DISTRIBUTED:
+                    cacheMode = CacheMode.DIST_SYNC;
+                    break;
+                case REPLICATED:
+                default:
+                    cacheMode = CacheMode.REPL_SYNC;
+                    break;
+            }
+        }
+        if(profile.getSynchronousReplication() != null && cacheMode.isClustered()){
+            if(profile.getSynchronousReplication()){
+                cacheMode = cacheMode.toSync();
+            } else {
+                cacheMode = cacheMode.toAsync();
+            }
+        }
+        configurationBuilder.clustering().cacheMode(cacheMode);
+        if(profile.getNumberOfOwners() != null && cacheMode.isDistributed()){
+            configurationBuilder.clustering().hash().numOwners(profile.getNumberOfOwners());
+        }
+        //
+        // Storage and Memory Bounds (once a bound is reached, the least recently used entries are removed - or, with
+        // overflowToDisk, passivated to the overflow store)
+        if(profile.getStorageType() != null){
+            switch(profile.getStorageType()){
+                case OFF_HEAP:
+                    configurationBuilder.memory().storage(StorageType.OFF_HEAP);
+                    break;
+                case HEAP:
+                default:
+                    configurationBuilder.memory().storage(StorageType.HEAP);
+                    break;
+            }
+        }
+        boolean binaryStorage = configurationBuilder.memory().storage() == StorageType.OFF_HEAP;
+        if(profile.getMaxSize() != null && !binaryStorage){
+            getLogger().warn(".applyCacheProfile(): maxSize requires OFF_HEAP storage (entries are held as objects otherwise), ignoring it, cacheName->{}", cacheName);
+        }
+        boolean memoryBounded = (profile.getMaxSize() != null && binaryStorage) || profile.getMaxCount() != null;
+        if(memoryBounded && lossless && !Boolean.TRUE.equals(profile.getOverflowToDisk())){
+            getLogger().warn(".applyCacheProfile(): A memory bound (maxCount/maxSize) without overflowToDisk would delete live entries from a lossless cache, ignoring it, cacheName->{}", cacheName);
+            memoryBounded = false;
+        }
+        if(memoryBounded) {
+            if (profile.getMaxSize() != null && binaryStorage) {
+                configurationBuilder.memory().maxSize(profile.getMaxSize()).whenFull(EvictionStrategy.REMOVE);
+            } else {
+                configurationBuilder.memory().maxCount(profile.getMaxCount()).whenFull(EvictionStrategy.REMOVE);
+            }
+        }
+        //
+        // Overflow (Spill-to-Disk) Tier
+        if(memoryBounded && Boolean.TRUE.equals(profile.getOverflowToDisk())){
+            applyOverflowStore(cacheName, profile, configurationBuilder);
+        } else if(Boolean.TRUE.equals(profile.getOverflowToDisk())){
+            getLogger().warn(".applyCacheProfile(): Overflow requested without a memory bound (maxCount/maxSize), nothing would overflow, cacheName->{}", cacheName);
+        }
+        //
+        // Expiration (entries of a lossless cache are only ever removed by the Ponos task lifecycle)
+        if(lossless && (profile.getLifespan() != null || profile.getMaxIdle() != null)){
+            getLogger().warn(".applyCacheProfile(): lifespan/maxIdle would expire live entries from a lossless cache, ignoring them, cacheName->{}", cacheName);
+        } else {
+            if(profile.getLifespan() != null){
+                configurationBuilder.expiration().lifespan(profile.getLifespan(), TimeUnit.MILLISECONDS);
+            }
+            if(profile.getMaxIdle() != null){
+                configurationBuilder.expiration().maxIdle(profile.getMaxIdle(), TimeUnit.MILLISECONDS);
+            }
+        }
+        //
+        // Locking
+        if(profile.getLockAcquisitionTimeout() != null){
+            configurationBuilder.locking().lockAcquisitionTimeout(profile.getLockAcquisitionTimeout(), TimeUnit.MILLISECONDS);
+        }
+        if(profile.getLockConcurrencyLevel() != null){
+            configurationBuilder.locking().concurrencyLevel(profile.getLockConcurrencyLevel());
+        }
+        if(profile.getLockStriping() != null){
+            configurationBuilder.locking().useLockStriping(profile.getLockStriping());
+        }
+        getLogger().debug(".applyCacheProfile(): Exit");
+    }
 
+    /**
+     * Adds a local, segmented (SoftIndex) file store to the cache, with passivation: entries are only written to the
+     * store when the cache's memory bound evicts them, and are read back (activated) - and removed from the store - when
+     * next accessed. The store holds overflow only, so it is purged on startup (the cluster remains the source of
+     * truth for the cache's content).
+     *
+     * @param cacheName the name of the cache
+     * @param profile the cache's profile
+     * @param configurationBuilder the cache's configuration (builder)
+     */
+    protected void applyOverflowStore(String cacheName, PonosCacheProfile profile, ConfigurationBuilder configurationBuilder){
+        getLogger().debug(".applyOverflowStore(): Entry, cacheName->{}", cacheName);
+        String overflowLocation = profile.getOverflowLocation() != null ? profile.getOverflowLocation() : DEFAULT_OVERFLOW_LOCATION;
+        Path cacheOverflowPath = Paths.get(overflowLocation, cacheName);
+        configurationBuilder.persistence()
+                .passivation(true)
+                .addStore(SoftIndexFileStoreConfigurationBuilder.class)
+                .dataLocation(cacheOverflowPath.resolve("data").toString())
+                .indexLocation(cacheOverflowPath.resolve("index").toString())
+                .segmented(true)
+                .shared(false)
+                .preload(false)
+                .purgeOnStartup(true);
+        getLogger().info(".applyOverflowStore(): Exit, cacheName->{}, overflowLocation->{}", cacheName, cacheOverflowPath);
+    }
 
+    public PonosCacheProfile getCacheProfile(String cacheName){
+        Map<String, PonosCacheProfile> cacheProfiles = ponosSubsystemDetails.getCacheProfiles();
+        if(cacheProfiles == null || cacheName == null){
+            return(null);
+        }
+        return(cacheProfiles.get(cacheName));
+    }
+
+    //
+    // Memory Accounting
+    //
+
+    /**
+     * Estimates (from a sample of each) the memory used by the entries this node holds for every running Ponos cache.
+     *
+     * @return the memory statistics, one per running cache
+     */
+    public List<PonosCacheMemoryStatistics> getCacheMemoryStatistics(){
+        getLogger().debug(".getCacheMemoryStatistics(): Entry");
+        List<PonosCacheMemoryStatistics> memoryStatistics = new ArrayList<>();
+        for(String currentCacheName: getCacheManager().getCacheNames()){
+            if(getCacheManager().isRunning(currentCacheName)){
+                Cache<?, ?> currentCache = getCacheManager().getCache(currentCacheName);
+                memoryStatistics.add(getCacheMemoryEstimator().estimate(currentCache));
+            }
+        }
+        getLogger().debug(".getCacheMemoryStatistics(): Exit, number of caches->{}", memoryStatistics.size());
+        return(memoryStatistics);
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    protected PonosCacheMemoryEstimator getCacheMemoryEstimator(){
+        return(cacheMemoryEstimator);
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.core.marshalling;
+
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosTaskCacheKey;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordMergeFunction;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordReportClaim;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordReportFailure;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordRetirement;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta.ActionableTaskRecordStateUpdate;
+import org.infinispan.protostream.SerializationContextInitializer;
+import org.infinispan.protostream.annotations.AutoProtoSchemaBuilder;
+
+/**
+ * The ProtoStream schema for the (small, Ponos-owned) task cache key and the functions evaluated against the task
+ * caches. The cache values themselves - the pegacorn core model classes - are held as objects and marshalled via
+ * Java serialisation. The (generated) implementation is registered via the ServiceLoader, so it is picked up by the
+ * cache manager without any explicit registration.
+ */
+@AutoProtoSchemaBuilder(
+        includeClasses = {
+                PonosTaskCacheKey.class,
+                ActionableTaskRecordMergeFunction.class,
+                ActionableTaskRecordStateUpdate.class,
+                ActionableTaskRecordReportClaim.class,
+                ActionableTaskRecordReportFailure.class,
+                ActionableTaskRecordRetirement.class
+        },
+        schemaFileName = "pegacorn-ponos-cache.proto",
+        schemaFilePath = "proto/",
+        schemaPackageName = "pegacorn.ponos")
+public interface PonosCacheSchemaInitializer extends SerializationContextInitializer {
+}
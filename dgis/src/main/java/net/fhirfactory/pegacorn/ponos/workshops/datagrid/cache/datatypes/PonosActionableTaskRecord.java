@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes;
+
+import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
+import net.fhirfactory.pegacorn.services.tasks.datatypes.PetasosActionableTaskRegistrationType;
+import org.hibernate.search.annotations.Analyze;
+import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.Indexed;
+import org.hibernate.search.annotations.SortableField;
+import org.hibernate.search.annotations.Store;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Everything the (Ponos) datagrid holds about a single PetasosActionableTask - the task itself, its registration,
+ * whether its journey has been reported on and where that report has got to - as one cache entry, so each lifecycle step is a single write (and a
+ * single replication) rather than one per facet.
+ *
+ * The task is held with its (larger) payloads externalised to the PonosPayloadStore; payloadHashes accumulates the
+ * hashes of every payload the task has referenced, so all of them are released when the task is retired. bodyDigest is
+ * the digest of the task's body (everything but its status), against which an ActionableTaskStatusDelta is checked
+ * before it is applied.
+ *
+ * A record is an immutable snapshot: changes are made by writing a new record, whose revision is one more than that of
+ * the record it replaces (so a writer can tell whether the record has changed since it read it). Its only mutable state is resolvedTask,
+ * a (transient) memo of the task with its payloads resolved, set by the task cache services the first time this
+ * instance of the record is read - it is never marshalled, so it is dropped whenever the record is replicated,
+ * passivated or replaced.
+ *
+ * The task's identity, status, fulfiller and instants are copied into (indexed) fields when the record is created, so
+ * records can be queried without reading the task itself. The fields the task cache statistics are grouped/aggregated
+ * on are also stored in the index, so the statistics are computed from the index alone.
+ */
+@Indexed
+public class PonosActionableTaskRecord implements Serializable {
+    private PetasosActionableTask actionableTask;
+    private PetasosActionableTaskRegistrationType registration;
+    @Field(analyze = Analyze.NO)
+    private boolean journeyReported;
+    @Field(analyze = Analyze.NO)
+    private boolean lastInChain;
+    private Set<String> payloadHashes;
+    private PonosTaskReportingState reportingState;
+    private String bodyDigest;
+    private long revision;
+    @Field(analyze = Analyze.NO)
+    private long reportAvailableInstant;
+    private transient volatile PetasosActionableTask resolvedTask;
+
+    @Field(analyze = Analyze.NO, store = Store.YES)
+    private String taskId;
+    @Field(analyze = Analyze.NO, store = Store.YES)
+    private String fulfillmentStatus;
+    @Field(analyze = Analyze.NO, store = Store.YES)
+    private String outcomeStatus;
+    @Field(analyze = Analyze.NO, store = Store.YES)
+    private String fulfillerParticipantName;
+    @Field(analyze = Analyze.NO)
+    private String fulfillerComponentId;
+    @Field(analyze = Analyze.NO, store = Store.YES)
+    @SortableField
+    private Long registrationInstant;
+    @Field(analyze = Analyze.NO)
+    @SortableField
+    private Long startInstant;
+    @Field(analyze = Analyze.NO)
+    @SortableField
+    private Long finishInstant;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosActionableTaskRecord(PetasosActionableTask actionableTask, PetasosActionableTaskRegistrationType registration, boolean journeyReported, Set<String> payloadHashes){
+        this(actionableTask, registration, journeyReported, payloadHashes, PonosTaskReportingState.UNCLAIMED, null, 0L);
+    }
+
+    public PonosActionableTaskRecord(PetasosActionableTask actionableTask, PetasosActionableTaskRegistrationType registration, boolean journeyReported, Set<String> payloadHashes, PonosTaskReportingState reportingState, String bodyDigest, long revision){
+        if(reportingState == null){
+            reportingState = PonosTaskReportingState.UNCLAIMED;
+        }
+        this.reportingState = reportingState;
+        this.reportAvailableInstant = reportingState.getAvailableInstant();
+        this.bodyDigest = bodyDigest;
+        this.revision = revision;
+        this.actionableTask = actionableTask;
+        this.registration = registration;
+        this.journeyReported = journeyReported;
+        if(payloadHashes == null){
+            this.payloadHashes = Collections.emptySet();
+        } else {
+            this.payloadHashes = Collections.unmodifiableSet(new HashSet<>(payloadHashes));
+        }
+        if(registration != null){
+            if(registration.getActionableTaskId() != null){
+                this.taskId = registration.getActionableTaskId().getId();
+            }
+            this.registrationInstant = toEpochMilli(registration.getRegistrationInstant());
+        }
+        if(actionableTask != null){
+            if(actionableTask.hasTaskCompletionSummary()){
+                this.lastInChain = actionableTask.getTaskCompletionSummary().isLastInChain();
+            }
+            if(actionableTask.getTaskOutcomeStatus() != null && actionableTask.getTaskOutcomeStatus().getOutcomeStatus() != null){
+                this.outcomeStatus = actionableTask.getTaskOutcomeStatus().getOutcomeStatus().name();
+            }
+            if(actionableTask.getTaskFulfillment() != null){
+                if(actionableTask.getTaskFulfillment().getStatus() != null){
+                    this.fulfillmentStatus = actionableTask.getTaskFulfillment().getStatus().name();
+                }
+                if(actionableTask.getTaskFulfillment().getFulfillerWorkUnitProcessor() != null){
+                    this.fulfillerParticipantName = actionableTask.getTaskFulfillment().getFulfillerWorkUnitProcessor().getParticipantName();
+                    if(actionableTask.getTaskFulfillment().getFulfillerWorkUnitProcessor().getComponentID() != null){
+                        this.fulfillerComponentId = actionableTask.getTaskFulfillment().getFulfillerWorkUnitProcessor().getComponentID().getId();
+                    }
+                }
+                this.startInstant = toEpochMilli(actionableTask.getTaskFulfillment().getStartInstant());
+                this.finishInstant = toEpochMilli(actionableTask.getTaskFulfillment().getFinishInstant());
+            }
+        }
+    }
+
+    private static Long toEpochMilli(Instant instant){
+        if(instant == null){
+            return(null);
+        }
+        return(instant.toEpochMilli());
+    }
+
+    //
+    // Getters
+    //
+
+    public boolean hasActionableTask(){
+        boolean hasValue = this.actionableTask != null;
+        return(hasValue);
+    }
+
+    public PetasosActionableTask getActionableTask() {
+        return actionableTask;
+    }
+
+    public PetasosActionableTaskRegistrationType getRegistration() {
+        return registration;
+    }
+
+    public boolean isJourneyReported() {
+        return journeyReported;
+    }
+
+    public boolean isLastInChain() {
+        return lastInChain;
+    }
+
+    public Set<String> getPayloadHashes() {
+        return payloadHashes;
+    }
+
+    public PonosTaskReportingState getReportingState() {
+        return reportingState;
+    }
+
+    public String getBodyDigest() {
+        return bodyDigest;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public long getReportAvailableInstant() {
+        return reportAvailableInstant;
+    }
+
+    public PetasosActionableTask getResolvedTask() {
+        return resolvedTask;
+    }
+
+    public void setResolvedTask(PetasosActionableTask resolvedTask) {
+        this.resolvedTask = resolvedTask;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public String getFulfillmentStatus() {
+        return fulfillmentStatus;
+    }
+
+    public String getOutcomeStatus() {
+        return outcomeStatus;
+    }
+
+    public String getFulfillerParticipantName() {
+        return fulfillerParticipantName;
+    }
+
+    public String getFulfillerComponentId() {
+        return fulfillerComponentId;
+    }
+
+    public Long getRegistrationInstant() {
+        return registrationInstant;
+    }
+
+    public Long getStartInstant() {
+        return startInstant;
+    }
+
+    public Long getFinishInstant() {
+        return finishInstant;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosActionableTaskRecord{" +
+                "actionableTask=" + actionableTask +
+                ", revision=" + revision +
+                ", registration=" + registration +
+                ", journeyReported=" + journeyReported +
+                ", lastInChain=" + lastInChain +
+                ", payloadHashes=" + payloadHashes +
+                ", reportingState=" + reportingState +
+                ", taskId=" + taskId +
+                ", fulfillmentStatus=" + fulfillmentStatus +
+                ", outcomeStatus=" + outcomeStatus +
+                '}';
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.fulfillment.valuesets.FulfillmentExecutionStatusEnum;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The set of tasks being fulfilled by a single component (ProcessingPlant), partitioned by the task's current
+ * FulfillmentExecutionStatusEnum. A task key is only ever held within one partition.
+ *
+ * An entry is changed in place, by applyChanges(), on the owner of the entry (under the entry's lock, from within an
+ * ActionableTaskComponentIndexUpdate) - so a change costs only the keys it moves. The partitions and the task-to-status
+ * map are concurrent, so the (local) readers never see a partition mid-change; the readers only ever receive copies.
+ */
+public class PonosComponentTaskIndexEntry implements Serializable {
+    private ConcurrentHashMap<FulfillmentExecutionStatusEnum, Set<DatagridElementKeyInterface>> statusPartitions;
+    private ConcurrentHashMap<DatagridElementKeyInterface, FulfillmentExecutionStatusEnum> taskStatuses;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosComponentTaskIndexEntry(){
+        this.statusPartitions = new ConcurrentHashMap<>();
+        this.taskStatuses = new ConcurrentHashMap<>();
+    }
+
+    //
+    // Business Methods
+    //
+
+    /**
+     * Places each task (key) into the partition for its given status, removing it from whichever partition it was
+     * previously held within, then removes the given tasks from the entry. Must only be called by the entry's owner,
+     * under the entry's lock.
+     *
+     * @param changedStatuses the new status of each task to place
+     * @param removedTasks the tasks to remove
+     * @return true if the entry changed
+     */
+    public boolean applyChanges(Map<DatagridElementKeyInterface, FulfillmentExecutionStatusEnum> changedStatuses, Collection<DatagridElementKeyInterface> removedTasks){
+        boolean changed = false;
+        for(Map.Entry<DatagridElementKeyInterface, FulfillmentExecutionStatusEnum> currentTaskStatus: changedStatuses.entrySet()){
+            FulfillmentExecutionStatusEnum heldStatus = taskStatuses.put(currentTaskStatus.getKey(), currentTaskStatus.getValue());
+            if(heldStatus == currentTaskStatus.getValue()){
+                continue;
+            }
+            if(heldStatus != null){
+                removeFromPartition(heldStatus, currentTaskStatus.getKey());
+            }
+            statusPartitions.computeIfAbsent(currentTaskStatus.getValue(), status -> ConcurrentHashMap.newKeySet()).add(currentTaskStatus.getKey());
+            changed = true;
+        }
+        for(DatagridElementKeyInterface currentTaskKey: removedTasks){
+            FulfillmentExecutionStatusEnum heldStatus = taskStatuses.remove(currentTaskKey);
+            if(heldStatus != null){
+                removeFromPartition(heldStatus, currentTaskKey);
+                changed = true;
+            }
+        }
+        return(changed);
+    }
+
+    private void removeFromPartition(FulfillmentExecutionStatusEnum status, DatagridElementKeyInterface taskKey){
+        Set<DatagridElementKeyInterface> partition = statusPartitions.get(status);
+        if(partition != null){
+            partition.remove(taskKey);
+            if(partition.isEmpty()){
+                statusPartitions.remove(status, partition);
+            }
+        }
+    }
+
+    public boolean containsTask(DatagridElementKeyInterface taskKey){
+        return(taskStatuses.containsKey(taskKey));
+    }
+
+    public Set<DatagridElementKeyInterface> getTaskKeys(FulfillmentExecutionStatusEnum status){
+        Set<DatagridElementKeyInterface> partition = statusPartitions.get(status);
+        if(partition == null){
+            return(new HashSet<>());
+        }
+        return(new HashSet<>(partition));
+    }
+
+    public Set<DatagridElementKeyInterface> getAllTaskKeys(){
+        return(new HashSet<>(taskStatuses.keySet()));
+    }
+
+    public boolean isEmpty(){
+        return(taskStatuses.isEmpty());
+    }
+
+    //
+    // Getters
+    //
+
+    public Map<FulfillmentExecutionStatusEnum, Set<DatagridElementKeyInterface>> getStatusPartitions() {
+        return (statusPartitions);
+    }
+
+    public Map<DatagridElementKeyInterface, FulfillmentExecutionStatusEnum> getTaskStatuses() {
+        return (taskStatuses);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosComponentTaskIndexEntry{" +
+                "statusPartitions=" + statusPartitions +
+                '}';
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.identity.datatypes.TaskIdType;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.infinispan.protostream.descriptors.Type;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The (task cache) key of a task: the 128 bit (MurmurHash3) hash of the task's id. The key is a fixed 16 bytes
+ * whatever the id - it marshalls as two fixed64 fields - and its hashCode is computed once, so equals/hashCode never
+ * walk the TaskIdType.
+ *
+ * Keys are interned - whether built from a task id, from bytes or by unmarshalling - so the many long lived references
+ * to the same task's key (the record, the expiry index, the component index, the completion queue, the near cache)
+ * share one instance. The interner is a fixed size, direct mapped table of weak references: it is bounded (a key
+ * whose slot is taken by another key is simply not interned) and never keeps a key alive on its own, and a lookup
+ * is one array read - no locks, and no hashing beyond the key's own.
+ *
+ * The key is one-way: the task's id cannot be recovered from it, so anything that needs the id (or the task) must
+ * read the record held under the key. The key format is not compatible with the TaskIdType-based keys of earlier
+ * Ponos releases - a cluster running mixed versions would hold each task under two keys - so moving to (or from) this
+ * key requires a full-cluster restart rather than a rolling upgrade.
+ */
+public final class PonosTaskCacheKey implements DatagridElementKeyInterface, Serializable {
+    private static final int HASH_SEED = 9001;
+    private static final int INTERNED_KEY_SLOTS = 1 << 16;
+    private static final AtomicReferenceArray<WeakReference<PonosTaskCacheKey>> internedKeys = new AtomicReferenceArray<>(INTERNED_KEY_SLOTS);
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    private final int hash;
+
+    //
+    // Constructor(s)
+    //
+
+    private PonosTaskCacheKey(long mostSignificantBits, long leastSignificantBits){
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+        this.hash = Long.hashCode(mostSignificantBits ^ leastSignificantBits);
+    }
+
+    /**
+     * Returns the (interned) key with the given bits - also the factory ProtoStream unmarshalls keys through.
+     *
+     * @param mostSignificantBits the high 64 bits of the task id's hash
+     * @param leastSignificantBits the low 64 bits of the task id's hash
+     * @return the key
+     */
+    @ProtoFactory
+    public static PonosTaskCacheKey valueOf(long mostSignificantBits, long leastSignificantBits){
+        return(intern(new PonosTaskCacheKey(mostSignificantBits, leastSignificantBits)));
+    }
+
+    /**
+     * Returns the (interned) key of the task with the given id.
+     *
+     * @param taskId the id of the task
+     * @return the task's key, or null if taskId is null
+     */
+    public static PonosTaskCacheKey fromTaskId(TaskIdType taskId){
+        if(taskId == null){
+            return(null);
+        }
+        String taskIdValue = taskId.getId() != null ? taskId.getId() : taskId.toString();
+        return(fromTaskIdValue(taskIdValue));
+    }
+
+    /**
+     * Returns the (interned) key of the task with the given id value - e.g. the taskId projected from the task cache's
+     * index.
+     *
+     * @param taskIdValue the value (TaskIdType.getId()) of the task's id
+     * @return the task's key, or null if taskIdValue is null
+     */
+    public static PonosTaskCacheKey fromTaskIdValue(String taskIdValue){
+        if(taskIdValue == null){
+            return(null);
+        }
+        long[] taskIdHash = MurmurHash3.MurmurHash3_x64_128(taskIdValue.getBytes(StandardCharsets.UTF_8), HASH_SEED);
+        return(valueOf(taskIdHash[0], taskIdHash[1]));
+    }
+
+    public static PonosTaskCacheKey fromBytes(byte[] keyBytes){
+        ByteBuffer keyBuffer = ByteBuffer.wrap(keyBytes);
+        return(valueOf(keyBuffer.getLong(), keyBuffer.getLong()));
+    }
+
+    private static PonosTaskCacheKey intern(PonosTaskCacheKey candidateKey){
+        int slot = candidateKey.hash & (INTERNED_KEY_SLOTS - 1);
+        WeakReference<PonosTaskCacheKey> internedReference = internedKeys.get(slot);
+        PonosTaskCacheKey internedKey = internedReference != null ? internedReference.get() : null;
+        if(candidateKey.equals(internedKey)){
+            return(internedKey);
+        }
+        if(internedKey == null){
+            internedKeys.compareAndSet(slot, internedReference, new WeakReference<>(candidateKey));
+        }
+        return(candidateKey);
+    }
+
+    /**
+     * Keys that are (Java) deserialised - e.g. within a passivated or state transferred record - are interned too.
+     *
+     * @return the interned key
+     */
+    private Object readResolve(){
+        return(intern(this));
+    }
+
+    //
+    // Business Methods
+    //
+
+    public byte[] toBytes(){
+        return(ByteBuffer.allocate(16).putLong(mostSignificantBits).putLong(leastSignificantBits).array());
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    @ProtoField(number = 1, type = Type.FIXED64, defaultValue = "0")
+    public long getMostSignificantBits() {
+        return (mostSignificantBits);
+    }
+
+    @ProtoField(number = 2, type = Type.FIXED64, defaultValue = "0")
+    public long getLeastSignificantBits() {
+        return (leastSignificantBits);
+    }
+
+    //
+    // Equals and HashCode
+    //
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PonosTaskCacheKey)) return false;
+        PonosTaskCacheKey that = (PonosTaskCacheKey) o;
+        return mostSignificantBits == that.mostSignificantBits && leastSignificantBits == that.leastSignificantBits;
+    }
+
+    @Override
+    public int hashCode() {
+        return (hash);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosTaskCacheKey{" + String.format("%016x%016x", mostSignificantBits, leastSignificantBits) + '}';
+    }
+}
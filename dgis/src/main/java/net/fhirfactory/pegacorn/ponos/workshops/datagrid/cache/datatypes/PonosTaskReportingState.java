@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes;
+
+import java.io.Serializable;
+
+/**
+ * Where a (last-in-chain) task's journey report has got to: until availableInstant the task is either claimed by a
+ * Ponos instance that is reporting on it (the claim is a lease, so it lapses if that instance goes away) or is backing
+ * off after a failed attempt. attempts counts the failed attempts; failed is set once the task has been given up on.
+ *
+ * Immutable - each change returns a new state.
+ */
+public class PonosTaskReportingState implements Serializable {
+    public static final PonosTaskReportingState UNCLAIMED = new PonosTaskReportingState(0, 0L, false);
+
+    private int attempts;
+    private long availableInstant;
+    private boolean failed;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosTaskReportingState(int attempts, long availableInstant, boolean failed){
+        this.attempts = attempts;
+        this.availableInstant = availableInstant;
+        this.failed = failed;
+    }
+
+    //
+    // Business Methods
+    //
+
+    public boolean isAvailable(long instant){
+        return(availableInstant <= instant);
+    }
+
+    public PonosTaskReportingState claimedUntil(long leaseExpiryInstant){
+        return(new PonosTaskReportingState(attempts, leaseExpiryInstant, failed));
+    }
+
+    public PonosTaskReportingState attemptFailed(long retryInstant){
+        return(new PonosTaskReportingState(attempts + 1, retryInstant, failed));
+    }
+
+    public PonosTaskReportingState givenUp(){
+        return(new PonosTaskReportingState(attempts, availableInstant, true));
+    }
+
+    //
+    // Getters
+    //
+
+    public int getAttempts() {
+        return (attempts);
+    }
+
+    public long getAvailableInstant() {
+        return (availableInstant);
+    }
+
+    public boolean isFailed() {
+        return (failed);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosTaskReportingState{" +
+                "attempts=" + attempts +
+                ", availableInstant=" + availableInstant +
+                ", failed=" + failed +
+                '}';
+    }
+}
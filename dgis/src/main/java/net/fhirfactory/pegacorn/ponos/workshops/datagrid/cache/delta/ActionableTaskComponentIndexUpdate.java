@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.componentid.ComponentIdType;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.fulfillment.valuesets.FulfillmentExecutionStatusEnum;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosComponentTaskIndexEntry;
+import org.infinispan.functional.EntryView;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The (add/move and remove) changes to a component's PonosComponentTaskIndexEntry, applied - via the functional
+ * ReadWriteMap - on the owner(s) of the entry, under the entry's lock. Only the changes travel, and each owner applies
+ * them to its entry in place (so a change costs the keys it moves, not a copy of the entry); concurrent changes from
+ * different Ponos instances are serialised by the owner rather than overwriting one another. The entry is removed once
+ * it has no tasks left.
+ */
+public class ActionableTaskComponentIndexUpdate implements Function<EntryView.ReadWriteEntryView<ComponentIdType, PonosComponentTaskIndexEntry>, Void>, Serializable {
+
+    private HashMap<DatagridElementKeyInterface, FulfillmentExecutionStatusEnum> taskStatuses;
+    private HashSet<DatagridElementKeyInterface> removedTasks;
+
+    //
+    // Constructor(s)
+    //
+
+    public ActionableTaskComponentIndexUpdate(){
+        this.taskStatuses = new HashMap<>();
+        this.removedTasks = new HashSet<>();
+    }
+
+    public static ActionableTaskComponentIndexUpdate taskStatuses(Map<DatagridElementKeyInterface, FulfillmentExecutionStatusEnum> taskStatuses){
+        ActionableTaskComponentIndexUpdate indexUpdate = new ActionableTaskComponentIndexUpdate();
+        indexUpdate.getTaskStatuses().putAll(taskStatuses);
+        return(indexUpdate);
+    }
+
+    public static ActionableTaskComponentIndexUpdate taskStatus(DatagridElementKeyInterface taskKey, FulfillmentExecutionStatusEnum status){
+        ActionableTaskComponentIndexUpdate indexUpdate = new ActionableTaskComponentIndexUpdate();
+        indexUpdate.getTaskStatuses().put(taskKey, status);
+        return(indexUpdate);
+    }
+
+    public static ActionableTaskComponentIndexUpdate removeTask(DatagridElementKeyInterface taskKey){
+        ActionableTaskComponentIndexUpdate indexUpdate = new ActionableTaskComponentIndexUpdate();
+        indexUpdate.getRemovedTasks().add(taskKey);
+        return(indexUpdate);
+    }
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public Void apply(EntryView.ReadWriteEntryView<ComponentIdType, PonosComponentTaskIndexEntry> entryView) {
+        PonosComponentTaskIndexEntry currentEntry = entryView.find().orElse(null);
+        boolean isNewEntry = false;
+        if(currentEntry == null){
+            if(taskStatuses.isEmpty()){
+                return(null);
+            }
+            currentEntry = new PonosComponentTaskIndexEntry();
+            isNewEntry = true;
+        }
+        boolean changed = currentEntry.applyChanges(taskStatuses, removedTasks);
+        if(currentEntry.isEmpty()){
+            if(!isNewEntry){
+                entryView.remove();
+            }
+        } else if(changed || isNewEntry){
+            entryView.set(currentEntry);
+        }
+        return(null);
+    }
+
+    //
+    // Getters
+    //
+
+    public Map<DatagridElementKeyInterface, FulfillmentExecutionStatusEnum> getTaskStatuses() {
+        return (taskStatuses);
+    }
+
+    public Set<DatagridElementKeyInterface> getRemovedTasks() {
+        return (removedTasks);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskComponentIndexUpdate{" +
+                "taskStatuses=" + taskStatuses +
+                ", removedTasks=" + removedTasks +
+                '}';
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.componentid.ComponentIdType;
+import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.identity.datatypes.TaskIdType;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosTaskReportingState;
+import net.fhirfactory.pegacorn.services.tasks.datatypes.PetasosActionableTaskRegistrationType;
+import org.infinispan.functional.EntryView;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Registering or updating a PetasosActionableTask, as a single write to its PonosActionableTaskRecord: create the
+ * registration if it does not exist, otherwise add the fulfilling ProcessingPlant and performer types to (a new
+ * revision of) it - then store the task.
+ *
+ * The merge is evaluated (via the functional ReadWriteMap) on the owner(s) of the record, under the entry's lock, so
+ * the read-modify-write is a single atomic operation within the cluster - concurrent registrations/updates of the same
+ * task from different Ponos instances can no longer overwrite one another.
+ *
+ * The task is the (externalised) copy produced by the PonosPayloadStore; its payload hashes are added to those the
+ * record already holds, so payloads referenced by earlier revisions of the task are still released on retirement. The
+ * digest of its body is stored with it, for later ActionableTaskStatusDeltas to be checked against - unless the merge
+ * registers the task, as the task is then changed (marked as registered) after it was digested.
+ *
+ * (Subclasses may merge less than the whole task - see ActionableTaskStatusDelta.)
+ */
+public class ActionableTaskRecordMerge implements Function<EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord>, PetasosActionableTaskRegistrationType>, Serializable {
+
+    private TaskIdType actionableTaskId;
+    private ComponentIdType fulfillmentProcessingPlant;
+    private List<Object> performerTypes;
+    private Instant registrationInstant;
+    private boolean refreshCheckInstant;
+    private PetasosActionableTask actionableTask;
+    private List<String> payloadHashes;
+    private String bodyDigest;
+
+    //
+    // Constructor(s)
+    //
+
+    /**
+     * @param actionableTask the (externalised) task being registered/updated
+     * @param payloadHashes the hashes of the task's externalised payloads
+     * @param bodyDigest the digest of the task's body
+     * @param fulfillmentProcessingPlant the ProcessingPlant (integration point) the task was received from
+     * @param refreshCheckInstant whether the checkInstant of an existing registration is to be refreshed
+     */
+    public ActionableTaskRecordMerge(PetasosActionableTask actionableTask, Collection<String> payloadHashes, String bodyDigest, ComponentIdType fulfillmentProcessingPlant, boolean refreshCheckInstant){
+        this(actionableTask, bodyDigest, fulfillmentProcessingPlant, refreshCheckInstant);
+        this.actionableTask = actionableTask;
+        if(payloadHashes != null){
+            this.payloadHashes.addAll(payloadHashes);
+        }
+    }
+
+    /**
+     * Captures the registration details (only) of the task - for subclasses that do not ship the task itself.
+     *
+     * @param actionableTask the task being registered/updated
+     * @param bodyDigest the digest of the task's body
+     * @param fulfillmentProcessingPlant the ProcessingPlant (integration point) the task was received from
+     * @param refreshCheckInstant whether the checkInstant of an existing registration is to be refreshed
+     */
+    protected ActionableTaskRecordMerge(PetasosActionableTask actionableTask, String bodyDigest, ComponentIdType fulfillmentProcessingPlant, boolean refreshCheckInstant){
+        this.registrationInstant = Instant.now();
+        this.actionableTaskId = actionableTask.getTaskId();
+        this.fulfillmentProcessingPlant = fulfillmentProcessingPlant;
+        Collection<?> taskPerformerTypes = actionableTask.getTaskPerformerTypes();
+        if(taskPerformerTypes != null){
+            this.performerTypes = new ArrayList<>(taskPerformerTypes);
+        } else {
+            this.performerTypes = null;
+        }
+        this.refreshCheckInstant = refreshCheckInstant;
+        this.bodyDigest = bodyDigest;
+        this.actionableTask = null;
+        this.payloadHashes = new ArrayList<>();
+    }
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public PetasosActionableTaskRegistrationType apply(EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord> entryView) {
+        PonosActionableTaskRecord currentRecord = entryView.find().orElse(null);
+        PetasosActionableTaskRegistrationType registration = null;
+        PetasosActionableTask mergedTask = null;
+        boolean journeyReported = false;
+        PonosTaskReportingState reportingState = PonosTaskReportingState.UNCLAIMED;
+        String recordBodyDigest = null;
+        long revision = 0L;
+        Set<String> recordPayloadHashes = new HashSet<>();
+        if(currentRecord != null){
+            recordPayloadHashes.addAll(currentRecord.getPayloadHashes());
+            registration = reviseRegistration(currentRecord.getRegistration());
+            journeyReported = currentRecord.isJourneyReported();
+            reportingState = currentRecord.getReportingState();
+            recordBodyDigest = bodyDigest;
+            revision = currentRecord.getRevision() + 1;
+            mergedTask = actionableTask;
+        } else {
+            registration = new PetasosActionableTaskRegistrationType();
+            registration.setActionableTaskId(actionableTaskId);
+            registration.setRegistrationInstant(registrationInstant);
+            registration.setCheckInstant(registrationInstant);
+            mergedTask = actionableTask;
+            mergedTask.setRegistered(true);
+            mergedTask.getTaskFulfillment().setRegistrationInstant(registrationInstant);
+            addRegistrationDetails(registration);
+        }
+        if(payloadHashes != null){
+            recordPayloadHashes.addAll(payloadHashes);
+        }
+        entryView.set(new PonosActionableTaskRecord(mergedTask, registration, journeyReported, recordPayloadHashes, reportingState, recordBodyDigest, revision));
+        // a merge evaluated locally returns its result as-is (unmarshalled), so never hand out the stored registration
+        return(newRevision(registration));
+    }
+
+    /**
+     * Creates the new revision of an existing registration that this merge stores: its checkInstant refreshed (if
+     * requested) and the fulfilling ProcessingPlant and performer types added.
+     *
+     * @param currentRegistration the registration currently held in the record
+     * @return the new revision
+     */
+    protected PetasosActionableTaskRegistrationType reviseRegistration(PetasosActionableTaskRegistrationType currentRegistration){
+        PetasosActionableTaskRegistrationType registration = newRevision(currentRegistration);
+        if(refreshCheckInstant){
+            registration.setCheckInstant(Instant.now());
+        }
+        addRegistrationDetails(registration);
+        return(registration);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void addRegistrationDetails(PetasosActionableTaskRegistrationType registration){
+        if(fulfillmentProcessingPlant != null){
+            registration.addFulfillmentProcessingPlant(fulfillmentProcessingPlant);
+        }
+        if(performerTypes != null){
+            registration.addPerformerTypes(new ArrayList(performerTypes));
+        }
+    }
+
+    /**
+     * Whether the given (merged) registration was created by this merge, i.e. the task was not previously registered.
+     *
+     * @param mergedRegistration the registration returned by the merge
+     * @return true if the registration was created by this merge
+     */
+    public boolean createdRegistration(PetasosActionableTaskRegistrationType mergedRegistration){
+        if(mergedRegistration == null){
+            return(false);
+        }
+        return(getRegistrationInstant().equals(mergedRegistration.getRegistrationInstant()));
+    }
+
+    /**
+     * Creates a new (modifiable) revision of a cached registration. The cached registration itself is never modified,
+     * and its (immutable) member values are shared rather than deep-copied.
+     *
+     * @param registration the cached registration
+     * @return a new registration with the same content, or null if registration is null
+     */
+    public static PetasosActionableTaskRegistrationType newRevision(PetasosActionableTaskRegistrationType registration){
+        if(registration == null){
+            return(null);
+        }
+        PetasosActionableTaskRegistrationType revision = new PetasosActionableTaskRegistrationType();
+        revision.setActionableTaskId(registration.getActionableTaskId());
+        revision.setRegistrationInstant(registration.getRegistrationInstant());
+        revision.setCheckInstant(registration.getCheckInstant());
+        revision.setResourceStatus(registration.getResourceStatus());
+        for(ComponentIdType currentComponentId: registration.getFulfillmentProcessingPlants()){
+            revision.addFulfillmentProcessingPlant(currentComponentId);
+        }
+        revision.addPerformerTypes(new ArrayList<>(registration.getPerformerTypes()));
+        return(revision);
+    }
+
+    //
+    // Getters and Setters
+    //
+
+    public TaskIdType getActionableTaskId() {
+        return actionableTaskId;
+    }
+
+    public ComponentIdType getFulfillmentProcessingPlant() {
+        return fulfillmentProcessingPlant;
+    }
+
+    public List<Object> getPerformerTypes() {
+        return performerTypes;
+    }
+
+    public Instant getRegistrationInstant() {
+        return registrationInstant;
+    }
+
+    public boolean isRefreshCheckInstant() {
+        return refreshCheckInstant;
+    }
+
+    public PetasosActionableTask getActionableTask() {
+        return actionableTask;
+    }
+
+    public List<String> getPayloadHashes() {
+        return payloadHashes;
+    }
+
+    public String getBodyDigest() {
+        return bodyDigest;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskRecordMerge{" +
+                "registrationInstant=" + getRegistrationInstant() +
+                ", refreshCheckInstant=" + refreshCheckInstant +
+                ", actionableTaskId=" + actionableTaskId +
+                ", payloadHashes=" + payloadHashes +
+                '}';
+    }
+}
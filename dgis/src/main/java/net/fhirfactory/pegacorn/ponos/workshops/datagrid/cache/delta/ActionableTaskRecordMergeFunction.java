@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.services.tasks.datatypes.PetasosActionableTaskRegistrationType;
+import org.infinispan.functional.EntryView;
+import org.infinispan.protostream.annotations.ProtoFactory;
+
+import java.util.function.BiFunction;
+
+/**
+ * Applies a (per entry) ActionableTaskRecordMerge to its entry - used when a batch of records, each with its own
+ * merge, is evaluated in one operation (ReadWriteMap.evalMany()). Stateless, so it marshalls as an empty message.
+ */
+public class ActionableTaskRecordMergeFunction implements BiFunction<ActionableTaskRecordMerge, EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord>, PetasosActionableTaskRegistrationType> {
+
+    //
+    // Constructor(s)
+    //
+
+    @ProtoFactory
+    public ActionableTaskRecordMergeFunction(){
+    }
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public PetasosActionableTaskRegistrationType apply(ActionableTaskRecordMerge recordMerge, EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord> entryView) {
+        return(recordMerge.apply(entryView));
+    }
+}
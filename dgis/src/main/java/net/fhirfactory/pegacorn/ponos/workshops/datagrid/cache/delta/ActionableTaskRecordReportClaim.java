@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import org.infinispan.functional.EntryView;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+
+import java.util.function.Function;
+
+/**
+ * Claims the journey report of an existing PonosActionableTaskRecord for the calling Ponos instance, on the owner(s) of
+ * the record - so however many instances offer a task for reporting (its writer, from its completion queue, and its
+ * primary owner, from the unreported completion query), only one reports on it at a time. The claim is a lease that
+ * lapses at claimInstant + claimLease.
+ *
+ * apply() returns true if the claim was made, false if the task is currently claimed (or backing off after a failed
+ * attempt) and null if there is no such task or its journey has already been reported on.
+ */
+public class ActionableTaskRecordReportClaim implements Function<EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord>, Boolean> {
+
+    private Long claimInstant;
+    private Long claimLease;
+
+    //
+    // Constructor(s)
+    //
+
+    @ProtoFactory
+    public ActionableTaskRecordReportClaim(Long claimInstant, Long claimLease){
+        this.claimInstant = claimInstant;
+        this.claimLease = claimLease;
+    }
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public Boolean apply(EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord> entryView) {
+        PonosActionableTaskRecord currentRecord = entryView.find().orElse(null);
+        if(currentRecord == null || !currentRecord.hasActionableTask() || currentRecord.isJourneyReported()){
+            return(null);
+        }
+        if(!currentRecord.getReportingState().isAvailable(claimInstant)){
+            return(false);
+        }
+        entryView.set(new PonosActionableTaskRecord(currentRecord.getActionableTask(), currentRecord.getRegistration(), false, currentRecord.getPayloadHashes(), currentRecord.getReportingState().claimedUntil(claimInstant + claimLease), currentRecord.getBodyDigest(), currentRecord.getRevision() + 1));
+        return(true);
+    }
+
+    //
+    // Getters
+    //
+
+    @ProtoField(number = 1)
+    public Long getClaimInstant() {
+        return claimInstant;
+    }
+
+    @ProtoField(number = 2)
+    public Long getClaimLease() {
+        return claimLease;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskRecordReportClaim{" +
+                "claimInstant=" + claimInstant +
+                ", claimLease=" + claimLease +
+                '}';
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosTaskReportingState;
+import org.infinispan.functional.EntryView;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+
+import java.util.function.Function;
+
+/**
+ * Records a failed attempt to report on a task's journey, on the owner(s) of its PonosActionableTaskRecord. The
+ * report's claim is released and the task is held back for retryBackoff, doubled for each earlier failure, before it
+ * may be claimed again. Once maxAttempts attempts have failed the task is given up on: its journey is marked as
+ * reported, with the reporting state recording the failure, so it is never offered again.
+ *
+ * apply() returns true if the task has been given up on.
+ */
+public class ActionableTaskRecordReportFailure implements Function<EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord>, Boolean> {
+
+    private Long failureInstant;
+    private Long retryBackoff;
+    private Integer maxAttempts;
+
+    //
+    // Constructor(s)
+    //
+
+    @ProtoFactory
+    public ActionableTaskRecordReportFailure(Long failureInstant, Long retryBackoff, Integer maxAttempts){
+        this.failureInstant = failureInstant;
+        this.retryBackoff = retryBackoff;
+        this.maxAttempts = maxAttempts;
+    }
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public Boolean apply(EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord> entryView) {
+        PonosActionableTaskRecord currentRecord = entryView.find().orElse(null);
+        if(currentRecord == null || currentRecord.isJourneyReported()){
+            return(false);
+        }
+        PonosTaskReportingState currentState = currentRecord.getReportingState();
+        long backoff = retryBackoff << Math.min(currentState.getAttempts(), 16);
+        PonosTaskReportingState updatedState = currentState.attemptFailed(failureInstant + backoff);
+        boolean givenUp = updatedState.getAttempts() >= maxAttempts;
+        if(givenUp){
+            updatedState = updatedState.givenUp();
+        }
+        entryView.set(new PonosActionableTaskRecord(currentRecord.getActionableTask(), currentRecord.getRegistration(), givenUp, currentRecord.getPayloadHashes(), updatedState, currentRecord.getBodyDigest(), currentRecord.getRevision() + 1));
+        return(givenUp);
+    }
+
+    //
+    // Getters
+    //
+
+    @ProtoField(number = 1)
+    public Long getFailureInstant() {
+        return failureInstant;
+    }
+
+    @ProtoField(number = 2)
+    public Long getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    @ProtoField(number = 3)
+    public Integer getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskRecordReportFailure{" +
+                "failureInstant=" + failureInstant +
+                ", retryBackoff=" + retryBackoff +
+                ", maxAttempts=" + maxAttempts +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import org.infinispan.functional.EntryView;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+
+import java.util.function.Function;
+
+/**
+ * Removes a (retiring) PonosActionableTaskRecord from the task cache, on the owner(s) of the record, but only if it is
+ * still the revision the retiring instance read (and archived) - so a registration/update that lands while the task is
+ * being retired is never lost, whichever Ponos instance it was written from.
+ *
+ * apply() returns true if the record was removed, false if it has changed since it was read (and so was not removed)
+ * and null if there is no such record.
+ */
+public class ActionableTaskRecordRetirement implements Function<EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord>, Boolean> {
+
+    private Long expectedRevision;
+
+    //
+    // Constructor(s)
+    //
+
+    @ProtoFactory
+    public ActionableTaskRecordRetirement(Long expectedRevision){
+        this.expectedRevision = expectedRevision;
+    }
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public Boolean apply(EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord> entryView) {
+        PonosActionableTaskRecord currentRecord = entryView.find().orElse(null);
+        if(currentRecord == null){
+            return(null);
+        }
+        if(currentRecord.getRevision() != expectedRevision){
+            return(false);
+        }
+        entryView.remove();
+        return(true);
+    }
+
+    //
+    // Getters
+    //
+
+    @ProtoField(number = 1)
+    public Long getExpectedRevision() {
+        return expectedRevision;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskRecordRetirement{" +
+                "expectedRevision=" + expectedRevision +
+                '}';
+    }
+}
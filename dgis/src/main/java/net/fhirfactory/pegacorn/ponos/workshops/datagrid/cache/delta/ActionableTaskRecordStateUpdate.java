@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.datagrid.valuesets.DatagridPersistenceResourceStatusEnum;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.services.tasks.datatypes.PetasosActionableTaskRegistrationType;
+import org.infinispan.functional.EntryView;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+
+import java.util.function.Function;
+
+/**
+ * Sets the journey-reported flag and/or the (persistence) resource status of an existing PonosActionableTaskRecord,
+ * on the owner(s) of the record. A null value leaves the corresponding state unchanged. apply() returns false if
+ * there is no such record.
+ */
+public class ActionableTaskRecordStateUpdate implements Function<EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord>, Boolean> {
+
+    private Boolean journeyReported;
+    private String resourceStatus;
+
+    //
+    // Constructor(s)
+    //
+
+    @ProtoFactory
+    public ActionableTaskRecordStateUpdate(Boolean journeyReported, String resourceStatus){
+        this.journeyReported = journeyReported;
+        this.resourceStatus = resourceStatus;
+    }
+
+    public static ActionableTaskRecordStateUpdate journeyReported(boolean journeyReported){
+        return(new ActionableTaskRecordStateUpdate(journeyReported, null));
+    }
+
+    public static ActionableTaskRecordStateUpdate resourceStatus(DatagridPersistenceResourceStatusEnum resourceStatus){
+        return(new ActionableTaskRecordStateUpdate(null, resourceStatus.name()));
+    }
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public Boolean apply(EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord> entryView) {
+        PonosActionableTaskRecord currentRecord = entryView.find().orElse(null);
+        if(currentRecord == null){
+            return(false);
+        }
+        boolean updatedJourneyReported = currentRecord.isJourneyReported();
+        if(journeyReported != null){
+            updatedJourneyReported = journeyReported;
+        }
+        PetasosActionableTaskRegistrationType registration = currentRecord.getRegistration();
+        if(resourceStatus != null){
+            registration = ActionableTaskRecordMerge.newRevision(currentRecord.getRegistration());
+            registration.setResourceStatus(DatagridPersistenceResourceStatusEnum.valueOf(resourceStatus));
+        }
+        entryView.set(new PonosActionableTaskRecord(currentRecord.getActionableTask(), registration, updatedJourneyReported, currentRecord.getPayloadHashes(), currentRecord.getReportingState(), currentRecord.getBodyDigest(), currentRecord.getRevision() + 1));
+        return(true);
+    }
+
+    //
+    // Getters and Setters
+    //
+
+    @ProtoField(number = 1)
+    public Boolean getJourneyReported() {
+        return journeyReported;
+    }
+
+    @ProtoField(number = 2)
+    public String getResourceStatus() {
+        return resourceStatus;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskRecordStateUpdate{" +
+                "journeyReported=" + journeyReported +
+                ", resourceStatus=" + resourceStatus +
+                '}';
+    }
+}
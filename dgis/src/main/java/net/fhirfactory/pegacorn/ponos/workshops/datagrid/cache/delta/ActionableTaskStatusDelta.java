@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.delta;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.componentid.ComponentIdType;
+import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.completion.datatypes.TaskCompletionSummaryType;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.fulfillment.datatypes.TaskFulfillmentType;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.status.datatypes.TaskOutcomeStatusType;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.services.tasks.datatypes.PetasosActionableTaskRegistrationType;
+import org.apache.commons.lang3.SerializationUtils;
+import org.infinispan.functional.EntryView;
+
+/**
+ * An update of a PetasosActionableTask that ships only the task's status - its TaskFulfillment, TaskOutcomeStatus and
+ * TaskCompletionSummary - together with the digest of the rest of the task (its body, see
+ * PonosPayloadStore.digestTaskBody()), rather than the whole task.
+ *
+ * On the owner(s) of the record the status is applied to (a copy of) the stored task only if the stored task's body
+ * digest matches, i.e. only if the status is all that has changed; the registration is revised as per a full
+ * ActionableTaskRecordMerge. Otherwise - or if the task is not (yet) registered - nothing is written and apply()
+ * returns null, and the caller falls back to a full merge.
+ */
+public class ActionableTaskStatusDelta extends ActionableTaskRecordMerge {
+
+    private TaskFulfillmentType taskFulfillment;
+    private TaskOutcomeStatusType taskOutcomeStatus;
+    private TaskCompletionSummaryType taskCompletionSummary;
+
+    //
+    // Constructor(s)
+    //
+
+    /**
+     * @param actionableTask the task being updated (not shipped - only its status is)
+     * @param bodyDigest the digest of the task's body
+     * @param fulfillmentProcessingPlant the ProcessingPlant (integration point) the update was received from
+     */
+    public ActionableTaskStatusDelta(PetasosActionableTask actionableTask, String bodyDigest, ComponentIdType fulfillmentProcessingPlant){
+        super(actionableTask, bodyDigest, fulfillmentProcessingPlant, true);
+        this.taskFulfillment = actionableTask.getTaskFulfillment();
+        this.taskOutcomeStatus = actionableTask.getTaskOutcomeStatus();
+        if(actionableTask.hasTaskCompletionSummary()){
+            this.taskCompletionSummary = actionableTask.getTaskCompletionSummary();
+        } else {
+            this.taskCompletionSummary = null;
+        }
+    }
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public PetasosActionableTaskRegistrationType apply(EntryView.ReadWriteEntryView<DatagridElementKeyInterface, PonosActionableTaskRecord> entryView) {
+        PonosActionableTaskRecord currentRecord = entryView.find().orElse(null);
+        if(currentRecord == null || !currentRecord.hasActionableTask() || getBodyDigest() == null || !getBodyDigest().equals(currentRecord.getBodyDigest())){
+            return(null);
+        }
+        PetasosActionableTask updatedTask = applyTo(currentRecord.getActionableTask());
+        PetasosActionableTaskRegistrationType registration = reviseRegistration(currentRecord.getRegistration());
+        entryView.set(new PonosActionableTaskRecord(updatedTask, registration, currentRecord.isJourneyReported(), currentRecord.getPayloadHashes(), currentRecord.getReportingState(), currentRecord.getBodyDigest(), currentRecord.getRevision() + 1));
+        return(newRevision(registration));
+    }
+
+    /**
+     * Applies the status to a copy of the given (stored) task - the stored task is never modified, as (with object
+     * storage) it is the very instance other readers on this node hold. The status is copied too, as a delta evaluated
+     * locally holds the caller's own instances.
+     *
+     * @param storedTask the task to apply the status to
+     * @return a copy of storedTask with the status applied
+     */
+    protected PetasosActionableTask applyTo(PetasosActionableTask storedTask){
+        PetasosActionableTask actionableTask = SerializationUtils.clone(storedTask);
+        actionableTask.setTaskFulfillment(taskFulfillment == null ? null : SerializationUtils.clone(taskFulfillment));
+        actionableTask.setTaskOutcomeStatus(taskOutcomeStatus == null ? null : SerializationUtils.clone(taskOutcomeStatus));
+        actionableTask.setTaskCompletionSummary(taskCompletionSummary == null ? null : SerializationUtils.clone(taskCompletionSummary));
+        return(actionableTask);
+    }
+
+    //
+    // Getters
+    //
+
+    public TaskFulfillmentType getTaskFulfillment() {
+        return taskFulfillment;
+    }
+
+    public TaskOutcomeStatusType getTaskOutcomeStatus() {
+        return taskOutcomeStatus;
+    }
+
+    public TaskCompletionSummaryType getTaskCompletionSummary() {
+        return taskCompletionSummary;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskStatusDelta{" +
+                "actionableTaskId=" + getActionableTaskId() +
+                ", bodyDigest=" + getBodyDigest() +
+                ", taskFulfillment=" + taskFulfillment +
+                ", taskOutcomeStatus=" + taskOutcomeStatus +
+                ", taskCompletionSummary=" + taskCompletionSummary +
+                '}';
+    }
+}
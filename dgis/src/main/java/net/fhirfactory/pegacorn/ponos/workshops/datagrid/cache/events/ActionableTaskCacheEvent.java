@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.fulfillment.valuesets.FulfillmentExecutionStatusEnum;
+
+import java.time.Instant;
+
+public class ActionableTaskCacheEvent {
+    private ActionableTaskCacheEventTypeEnum eventType;
+    private DatagridElementKeyInterface taskKey;
+    private FulfillmentExecutionStatusEnum previousStatus;
+    private FulfillmentExecutionStatusEnum status;
+    private boolean originLocal;
+    private Instant eventInstant;
+
+    //
+    // Constructor(s)
+    //
+
+    public ActionableTaskCacheEvent(){
+        this.eventType = null;
+        this.taskKey = null;
+        this.previousStatus = null;
+        this.status = null;
+        this.originLocal = false;
+        this.eventInstant = Instant.now();
+    }
+
+    public ActionableTaskCacheEvent(ActionableTaskCacheEventTypeEnum eventType, DatagridElementKeyInterface taskKey, boolean originLocal){
+        this();
+        this.eventType = eventType;
+        this.taskKey = taskKey;
+        this.originLocal = originLocal;
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    public ActionableTaskCacheEventTypeEnum getEventType() {
+        return (eventType);
+    }
+
+    public void setEventType(ActionableTaskCacheEventTypeEnum eventType) {
+        this.eventType = eventType;
+    }
+
+    public DatagridElementKeyInterface getTaskKey() {
+        return (taskKey);
+    }
+
+    public void setTaskKey(DatagridElementKeyInterface taskKey) {
+        this.taskKey = taskKey;
+    }
+
+    public FulfillmentExecutionStatusEnum getPreviousStatus() {
+        return (previousStatus);
+    }
+
+    public void setPreviousStatus(FulfillmentExecutionStatusEnum previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public FulfillmentExecutionStatusEnum getStatus() {
+        return (status);
+    }
+
+    public void setStatus(FulfillmentExecutionStatusEnum status) {
+        this.status = status;
+    }
+
+    public boolean isOriginLocal() {
+        return (originLocal);
+    }
+
+    public void setOriginLocal(boolean originLocal) {
+        this.originLocal = originLocal;
+    }
+
+    public Instant getEventInstant() {
+        return (eventInstant);
+    }
+
+    public void setEventInstant(Instant eventInstant) {
+        this.eventInstant = eventInstant;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskCacheEvent{" +
+                "eventType=" + eventType +
+                ", taskKey=" + taskKey +
+                ", previousStatus=" + previousStatus +
+                ", status=" + status +
+                ", originLocal=" + originLocal +
+                ", eventInstant=" + eventInstant +
+                '}';
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.fulfillment.valuesets.FulfillmentExecutionStatusEnum;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.cachelistener.filter.AbstractCacheEventFilterConverter;
+import org.infinispan.notifications.cachelistener.filter.EventType;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Runs on the owner of each task record and reduces the record's entry event to an ActionableTaskCacheEventSummary,
+ * so the (clustered) ActionableTaskCacheEventListener receives the key, the previous/current status and the
+ * last-in-chain flag rather than the whole record - old and new - for every write.
+ */
+public class ActionableTaskCacheEventFilterConverter extends AbstractCacheEventFilterConverter<DatagridElementKeyInterface, PonosActionableTaskRecord, ActionableTaskCacheEventSummary> implements Serializable {
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public ActionableTaskCacheEventSummary filterAndConvert(DatagridElementKeyInterface key, PonosActionableTaskRecord oldValue, Metadata oldMetadata, PonosActionableTaskRecord newValue, Metadata newMetadata, EventType eventType) {
+        if(eventType.isCreate()){
+            PetasosActionableTask actionableTask = getActionableTask(newValue);
+            return(new ActionableTaskCacheEventSummary(ActionableTaskCacheEventTypeEnum.TASK_REGISTERED, null, getStatus(actionableTask), isLastInChain(actionableTask)));
+        }
+        if(eventType.isModified()){
+            PetasosActionableTask previousTask = getActionableTask(oldValue);
+            PetasosActionableTask actionableTask = getActionableTask(newValue);
+            FulfillmentExecutionStatusEnum previousStatus = getStatus(previousTask);
+            FulfillmentExecutionStatusEnum status = getStatus(actionableTask);
+            ActionableTaskCacheEventTypeEnum summaryType = ActionableTaskCacheEventTypeEnum.TASK_UPDATED;
+            if(!Objects.equals(previousStatus, status)){
+                summaryType = ActionableTaskCacheEventTypeEnum.TASK_STATUS_CHANGED;
+            }
+            boolean lastInChainCompleted = isLastInChain(actionableTask) && !isLastInChain(previousTask);
+            return(new ActionableTaskCacheEventSummary(summaryType, previousStatus, status, lastInChainCompleted));
+        }
+        if(eventType.isRemove() || eventType.isExpired()){
+            PetasosActionableTask retiredTask = getActionableTask(oldValue != null ? oldValue : newValue);
+            return(new ActionableTaskCacheEventSummary(ActionableTaskCacheEventTypeEnum.TASK_RETIRED, getStatus(retiredTask), null, false));
+        }
+        return(null);
+    }
+
+    //
+    // Helpers
+    //
+
+    private PetasosActionableTask getActionableTask(PonosActionableTaskRecord record){
+        if(record == null || !record.hasActionableTask()){
+            return(null);
+        }
+        return(record.getActionableTask());
+    }
+
+    private FulfillmentExecutionStatusEnum getStatus(PetasosActionableTask actionableTask){
+        if(actionableTask == null || actionableTask.getTaskFulfillment() == null){
+            return(null);
+        }
+        return(actionableTask.getTaskFulfillment().getStatus());
+    }
+
+    private boolean isLastInChain(PetasosActionableTask actionableTask){
+        if(actionableTask == null || !actionableTask.hasTaskCompletionSummary()){
+            return(false);
+        }
+        return(actionableTask.getTaskCompletionSummary().isLastInChain());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryExpired;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryExpiredEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryModifiedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryRemovedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Translates the (record) ActionableTaskCache's entry events into typed ActionableTaskCacheEvents. The listener is
+ * clustered - each entry event is delivered once (from the entry's primary owner) whichever node made the change -
+ * and asynchronous, so the writer never waits on the subscribers. A record carries both the task and its
+ * registration, so this one listener covers what were the task and registration caches.
+ *
+ * The listener is registered with an ActionableTaskCacheEventFilterConverter, so each event's value is the (compact)
+ * ActionableTaskCacheEventSummary built on the owner rather than the record itself.
+ */
+@Listener(clustered = true, sync = false, observation = Listener.Observation.POST)
+public class ActionableTaskCacheEventListener {
+    private static final Logger LOG = LoggerFactory.getLogger(ActionableTaskCacheEventListener.class);
+
+    private ActionableTaskCacheEventPublisher eventPublisher;
+
+    //
+    // Constructor(s)
+    //
+
+    public ActionableTaskCacheEventListener(ActionableTaskCacheEventPublisher eventPublisher){
+        this.eventPublisher = eventPublisher;
+    }
+
+    //
+    // Listener Methods
+    //
+
+    @CacheEntryCreated
+    public void onTaskCreated(CacheEntryCreatedEvent<DatagridElementKeyInterface, ActionableTaskCacheEventSummary> event){
+        getLogger().trace(".onTaskCreated(): Entry, key->{}", event.getKey());
+        publish(event.getKey(), event.getValue(), event.isOriginLocal());
+    }
+
+    @CacheEntryModified
+    public void onTaskModified(CacheEntryModifiedEvent<DatagridElementKeyInterface, ActionableTaskCacheEventSummary> event){
+        getLogger().trace(".onTaskModified(): Entry, key->{}", event.getKey());
+        publish(event.getKey(), event.getNewValue(), event.isOriginLocal());
+    }
+
+    @CacheEntryRemoved
+    public void onTaskRemoved(CacheEntryRemovedEvent<DatagridElementKeyInterface, ActionableTaskCacheEventSummary> event){
+        getLogger().trace(".onTaskRemoved(): Entry, key->{}", event.getKey());
+        ActionableTaskCacheEventSummary summary = event.getOldValue() != null ? event.getOldValue() : event.getValue();
+        publish(event.getKey(), summary, event.isOriginLocal());
+    }
+
+    @CacheEntryExpired
+    public void onTaskExpired(CacheEntryExpiredEvent<DatagridElementKeyInterface, ActionableTaskCacheEventSummary> event){
+        getLogger().trace(".onTaskExpired(): Entry, key->{}", event.getKey());
+        publish(event.getKey(), event.getValue(), event.isOriginLocal());
+    }
+
+    //
+    // Helpers
+    //
+
+    private void publish(DatagridElementKeyInterface taskKey, ActionableTaskCacheEventSummary summary, boolean originLocal){
+        if(summary == null){
+            getLogger().trace(".publish(): No summary for event, key->{}", taskKey);
+            return;
+        }
+        ActionableTaskCacheEvent taskEvent = new ActionableTaskCacheEvent(summary.getEventType(), taskKey, originLocal);
+        taskEvent.setPreviousStatus(summary.getPreviousStatus());
+        taskEvent.setStatus(summary.getStatus());
+        getEventPublisher().publish(taskEvent);
+        if(summary.isLastInChainCompleted()){
+            ActionableTaskCacheEvent completedEvent = new ActionableTaskCacheEvent(ActionableTaskCacheEventTypeEnum.TASK_LAST_IN_CHAIN_COMPLETED, taskKey, originLocal);
+            completedEvent.setStatus(summary.getStatus());
+            getEventPublisher().publish(completedEvent);
+        }
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    protected Logger getLogger(){
+        return(LOG);
+    }
+
+    protected ActionableTaskCacheEventPublisher getEventPublisher(){
+        return(eventPublisher);
+    }
+}
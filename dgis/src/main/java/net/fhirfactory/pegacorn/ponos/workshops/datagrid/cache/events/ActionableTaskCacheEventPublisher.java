@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fans the (typed) ActionableTaskCache events out to the in-process subscribers. Subscriptions are rare and events
+ * are frequent, so the subscriber list is copy-on-write: publishing never locks. A failing subscriber is logged and
+ * does not stop delivery to the others.
+ */
+public class ActionableTaskCacheEventPublisher {
+    private static final Logger LOG = LoggerFactory.getLogger(ActionableTaskCacheEventPublisher.class);
+
+    private List<ActionableTaskCacheEventSubscriber> subscribers;
+
+    //
+    // Constructor(s)
+    //
+
+    public ActionableTaskCacheEventPublisher(){
+        this.subscribers = new CopyOnWriteArrayList<>();
+    }
+
+    //
+    // Business Methods
+    //
+
+    public void subscribe(ActionableTaskCacheEventSubscriber subscriber){
+        getLogger().debug(".subscribe(): Entry, subscriber->{}", subscriber);
+        if(subscriber != null && !getSubscribers().contains(subscriber)){
+            getSubscribers().add(subscriber);
+        }
+        getLogger().debug(".subscribe(): Exit, subscriberCount->{}", getSubscribers().size());
+    }
+
+    public void unsubscribe(ActionableTaskCacheEventSubscriber subscriber){
+        getLogger().debug(".unsubscribe(): Entry, subscriber->{}", subscriber);
+        getSubscribers().remove(subscriber);
+        getLogger().debug(".unsubscribe(): Exit, subscriberCount->{}", getSubscribers().size());
+    }
+
+    public void publish(ActionableTaskCacheEvent event){
+        getLogger().trace(".publish(): Entry, event->{}", event);
+        for(ActionableTaskCacheEventSubscriber currentSubscriber: getSubscribers()){
+            try {
+                currentSubscriber.onActionableTaskCacheEvent(event);
+            } catch(Exception ex){
+                getLogger().warn(".publish(): Subscriber failed to process event, subscriber->{}, event->{}, message->{}", currentSubscriber, event, ExceptionUtils.getMessage(ex));
+            }
+        }
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    protected Logger getLogger(){
+        return(LOG);
+    }
+
+    protected List<ActionableTaskCacheEventSubscriber> getSubscribers(){
+        return(subscribers);
+    }
+
+    public int getSubscriberCount(){
+        return(getSubscribers().size());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events;
+
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.fulfillment.valuesets.FulfillmentExecutionStatusEnum;
+
+import java.io.Serializable;
+
+/**
+ * The (compact) form in which a task record's entry event is shipped from the record's owner to the cluster listeners:
+ * the kind of change, the task's previous and current status and whether the change completed a last-in-chain task -
+ * never the record itself. The event's key identifies the task.
+ */
+public class ActionableTaskCacheEventSummary implements Serializable {
+    private ActionableTaskCacheEventTypeEnum eventType;
+    private FulfillmentExecutionStatusEnum previousStatus;
+    private FulfillmentExecutionStatusEnum status;
+    private boolean lastInChainCompleted;
+
+    //
+    // Constructor(s)
+    //
+
+    public ActionableTaskCacheEventSummary(ActionableTaskCacheEventTypeEnum eventType, FulfillmentExecutionStatusEnum previousStatus, FulfillmentExecutionStatusEnum status, boolean lastInChainCompleted){
+        this.eventType = eventType;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.lastInChainCompleted = lastInChainCompleted;
+    }
+
+    //
+    // Getters
+    //
+
+    public ActionableTaskCacheEventTypeEnum getEventType() {
+        return (eventType);
+    }
+
+    public FulfillmentExecutionStatusEnum getPreviousStatus() {
+        return (previousStatus);
+    }
+
+    public FulfillmentExecutionStatusEnum getStatus() {
+        return (status);
+    }
+
+    public boolean isLastInChainCompleted() {
+        return (lastInChainCompleted);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskCacheEventSummary{" +
+                "eventType=" + eventType +
+                ", previousStatus=" + previousStatus +
+                ", status=" + status +
+                ", lastInChainCompleted=" + lastInChainCompleted +
+                '}';
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.expiry;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A time-bucketed expiry index for the actionable task registrations held by this Ponos instance. Task keys are
+ * placed into a (one second wide) bucket according to their registration instant, and the buckets are kept in
+ * time order so that a retirement pass only ever visits the buckets that have expired - its cost is a function of
+ * the number of expired tasks, not the number of live ones.
+ */
+public class ActionableTaskExpiryIndex {
+    private TreeMap<Long, Set<DatagridElementKeyInterface>> expiryBuckets;
+    private int size;
+
+    //
+    // Constructor(s)
+    //
+
+    public ActionableTaskExpiryIndex(){
+        this.expiryBuckets = new TreeMap<>();
+        this.size = 0;
+    }
+
+    //
+    // Business Methods
+    //
+
+    public synchronized void addTask(DatagridElementKeyInterface taskKey, Instant registrationInstant){
+        if(taskKey == null){
+            return;
+        }
+        if(registrationInstant == null){
+            registrationInstant = Instant.now();
+        }
+        Long bucketId = registrationInstant.getEpochSecond();
+        Set<DatagridElementKeyInterface> bucket = getExpiryBuckets().get(bucketId);
+        if(bucket == null){
+            bucket = new HashSet<>();
+            getExpiryBuckets().put(bucketId, bucket);
+        }
+        if(bucket.add(taskKey)){
+            size += 1;
+        }
+    }
+
+    /**
+     * Removes (and returns the content of) every bucket whose tasks were registered more than thresholdAge seconds
+     * before now.
+     *
+     * @param thresholdAge the age (in seconds) beyond which a task is considered expired
+     * @return the set of expired task keys
+     */
+    public synchronized Set<DatagridElementKeyInterface> pollExpired(Long thresholdAge){
+        Set<DatagridElementKeyInterface> expiredTaskSet = new HashSet<>();
+        Long cutoffBucketId = Instant.now().getEpochSecond() - thresholdAge;
+        Map.Entry<Long, Set<DatagridElementKeyInterface>> currentBucket = getExpiryBuckets().firstEntry();
+        while(currentBucket != null && currentBucket.getKey() < cutoffBucketId){
+            getExpiryBuckets().pollFirstEntry();
+            expiredTaskSet.addAll(currentBucket.getValue());
+            size -= currentBucket.getValue().size();
+            currentBucket = getExpiryBuckets().firstEntry();
+        }
+        return(expiredTaskSet);
+    }
+
+    /**
+     * Returns the bucket (epoch second of registration) of the oldest task in the index, so that the next retirement
+     * pass can be scheduled for when it expires rather than polled for.
+     *
+     * @return the registration second of the oldest indexed task, or null if the index is empty
+     */
+    public synchronized Long getEarliestRegistrationSecond(){
+        if(getExpiryBuckets().isEmpty()){
+            return(null);
+        }
+        return(getExpiryBuckets().firstKey());
+    }
+
+    public synchronized int getSize(){
+        return(size);
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    protected TreeMap<Long, Set<DatagridElementKeyInterface>> getExpiryBuckets(){
+        return(expiryBuckets);
+    }
+}
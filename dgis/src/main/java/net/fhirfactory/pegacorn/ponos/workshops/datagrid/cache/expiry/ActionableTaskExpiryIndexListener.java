@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.expiry;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosTaskCacheKey;
+import org.infinispan.Cache;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.TopologyChanged;
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent;
+import org.infinispan.notifications.cachelistener.event.TopologyChangedEvent;
+import org.infinispan.query.Search;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.QueryFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Feeds the ActionableTaskExpiryIndex from the (record) ActionableTaskCache. The listener is local, so it sees
+ * every registration held by this Ponos instance (whether it was written here or replicated from a peer) and,
+ * through includeCurrentState, every registration that was already present when the listener was added.
+ *
+ * Only the registrations this instance is the primary owner of are indexed, so each task is retired by exactly one
+ * instance rather than by every owner. When the topology changes, the registrations held locally are re-scanned so
+ * that those this instance has become the primary owner of are indexed too (a key it has ceased to own is skipped
+ * when it expires). The re-scan reads the task cache's (local) index - a projection of each record's taskId and
+ * registrationInstant, both stored in the index - rather than the entries, so records that have been passivated to
+ * the overflow store are indexed without being activated back into memory.
+ */
+@Listener(observation = Listener.Observation.POST, includeCurrentState = true, sync = false)
+public class ActionableTaskExpiryIndexListener {
+    private static final Logger LOG = LoggerFactory.getLogger(ActionableTaskExpiryIndexListener.class);
+
+    private static final String ACTIONABLE_TASK_RECORD_ENTITY = PonosActionableTaskRecord.class.getName();
+    private static final int RESCAN_PAGE_SIZE = 1000;
+
+    private ActionableTaskExpiryIndex expiryIndex;
+    private Cache<DatagridElementKeyInterface, PonosActionableTaskRecord> taskRecordCache;
+
+    //
+    // Constructor(s)
+    //
+
+    public ActionableTaskExpiryIndexListener(ActionableTaskExpiryIndex expiryIndex, Cache<DatagridElementKeyInterface, PonosActionableTaskRecord> taskRecordCache){
+        this.expiryIndex = expiryIndex;
+        this.taskRecordCache = taskRecordCache;
+    }
+
+    //
+    // Listener Methods
+    //
+
+    @CacheEntryCreated
+    public void onRegistrationCreated(CacheEntryCreatedEvent<DatagridElementKeyInterface, PonosActionableTaskRecord> event){
+        getLogger().trace(".onRegistrationCreated(): Entry, key->{}", event.getKey());
+        if(isPrimaryOwner(event.getKey())){
+            indexRecord(event.getKey(), event.getValue());
+        }
+    }
+
+    @TopologyChanged
+    public void onTopologyChanged(TopologyChangedEvent<DatagridElementKeyInterface, PonosActionableTaskRecord> event){
+        getLogger().debug(".onTopologyChanged(): Entry, topologyId->{}", event.getNewTopologyId());
+        QueryFactory queryFactory = Search.getQueryFactory(getTaskRecordCache());
+        int offset = 0;
+        List<Object[]> currentPage;
+        do {
+            Query<Object[]> rescanQuery = queryFactory.create("SELECT r.taskId, r.registrationInstant FROM " + ACTIONABLE_TASK_RECORD_ENTITY + " r ORDER BY r.registrationInstant ASC");
+            rescanQuery.local(true);
+            rescanQuery.startOffset(offset);
+            rescanQuery.maxResults(RESCAN_PAGE_SIZE);
+            currentPage = rescanQuery.execute().list();
+            for(Object[] currentRow: currentPage){
+                PonosTaskCacheKey currentKey = PonosTaskCacheKey.fromTaskIdValue((String)currentRow[0]);
+                if(currentKey != null && currentRow[1] != null && isPrimaryOwner(currentKey)){
+                    getExpiryIndex().addTask(currentKey, Instant.ofEpochMilli(((Number)currentRow[1]).longValue()));
+                }
+            }
+            offset += currentPage.size();
+        } while(currentPage.size() == RESCAN_PAGE_SIZE);
+        getLogger().debug(".onTopologyChanged(): Exit, scanned->{}, indexed->{}", offset, getExpiryIndex().getSize());
+    }
+
+    //
+    // Helpers
+    //
+
+    private void indexRecord(DatagridElementKeyInterface taskKey, PonosActionableTaskRecord record){
+        if(record != null && record.getRegistration() != null){
+            getExpiryIndex().addTask(taskKey, record.getRegistration().getRegistrationInstant());
+        }
+    }
+
+    /**
+     * Whether this Ponos instance is the primary owner of the given key (always true if the cache is not clustered).
+     *
+     * @param taskKey the task (record) key
+     * @return true if this instance is the key's primary owner
+     */
+    protected boolean isPrimaryOwner(DatagridElementKeyInterface taskKey){
+        DistributionManager distributionManager = getTaskRecordCache().getAdvancedCache().getDistributionManager();
+        if(distributionManager == null){
+            return(true);
+        }
+        return(distributionManager.getCacheTopology().getDistribution(taskKey).isPrimary());
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    protected Logger getLogger(){
+        return(LOG);
+    }
+
+    protected ActionableTaskExpiryIndex getExpiryIndex(){
+        return(expiryIndex);
+    }
+
+    protected Cache<DatagridElementKeyInterface, PonosActionableTaskRecord> getTaskRecordCache(){
+        return(taskRecordCache);
+    }
+}
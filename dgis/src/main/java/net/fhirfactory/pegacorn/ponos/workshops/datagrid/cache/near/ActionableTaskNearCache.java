@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.near;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEvent;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, local (this Ponos instance) near cache of (resolved) tasks in front of the ActionableTaskCache, so
+ * repeated reads of the same task - e.g. the first task of a journey, read by each report - avoid the remote hop and
+ * the resolution of the task's payloads: a hit is returned as-is.
+ *
+ * Eviction is frequency aware (Caffeine's W-TinyLFU): a burst of one-off reads does not flush the tasks that are read
+ * again and again. Entries are invalidated by the (clustered) task cache events - whichever node changed the task -
+ * and the lifespan bounds how long an entry can outlive a missed event.
+ *
+ * A read that misses the near cache fetches the record remotely and then populates the near cache - and an
+ * invalidation can arrive in between. So each key (stripe) has a generation, bumped by every invalidation: a reader
+ * takes the generation (beginRead()) before its remote read, and putIfNotInvalidated() only stores the task if the
+ * generation has not moved since. The check and the store are one (per key) atomic step, so a stale task can never be
+ * stored after the invalidation that superseded it.
+ *
+ * The near cache holds the tasks exactly as the task cache services hand them out - resolved, and shared by every
+ * reader - so a task taken from (or put into) the near cache is a read-only snapshot and must never be modified.
+ */
+public class ActionableTaskNearCache implements ActionableTaskCacheEventSubscriber {
+    private static final Logger LOG = LoggerFactory.getLogger(ActionableTaskNearCache.class);
+
+    private static final long DEFAULT_MAX_COUNT = 10000L;
+    private static final long DEFAULT_LIFESPAN = 60000L;
+    private static final int GENERATION_STRIPES = 1024;
+
+    private Cache<DatagridElementKeyInterface, PetasosActionableTask> nearCache;
+    private long maxCount;
+    private long lifespan;
+    private AtomicLongArray generations;
+
+    //
+    // Constructor(s)
+    //
+
+    public ActionableTaskNearCache(){
+        this(DEFAULT_MAX_COUNT, DEFAULT_LIFESPAN);
+    }
+
+    public ActionableTaskNearCache(Long maxCount, Long lifespan){
+        this.maxCount = (maxCount == null || maxCount < 0) ? DEFAULT_MAX_COUNT : maxCount;
+        this.lifespan = (lifespan == null || lifespan <= 0) ? DEFAULT_LIFESPAN : lifespan;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(this.maxCount)
+                .expireAfterWrite(this.lifespan, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        this.generations = new AtomicLongArray(GENERATION_STRIPES);
+    }
+
+    //
+    // Business Methods
+    //
+
+    public boolean isEnabled(){
+        return(maxCount > 0);
+    }
+
+    public PetasosActionableTask get(DatagridElementKeyInterface taskKey){
+        if(!isEnabled() || taskKey == null){
+            return(null);
+        }
+        return(getNearCache().getIfPresent(taskKey));
+    }
+
+    /**
+     * Starts a read of the given task from the (remote) task cache.
+     *
+     * @param taskKey the key of the task about to be read
+     * @return the stamp to pass to putIfNotInvalidated() once the read has completed
+     */
+    public long beginRead(DatagridElementKeyInterface taskKey){
+        if(taskKey == null){
+            return(0L);
+        }
+        return(getGenerations().get(stripe(taskKey)));
+    }
+
+    /**
+     * Stores a task read from the (remote) task cache, unless the task has been invalidated since beginRead().
+     *
+     * @param taskKey the key of the task
+     * @param actionableTask the (resolved) task that was read
+     * @param stamp the stamp returned by beginRead() before the read
+     */
+    public void putIfNotInvalidated(DatagridElementKeyInterface taskKey, PetasosActionableTask actionableTask, long stamp){
+        if(!isEnabled() || taskKey == null || actionableTask == null){
+            return;
+        }
+        int stripe = stripe(taskKey);
+        getNearCache().asMap().compute(taskKey, (key, currentTask) -> {
+            if(getGenerations().get(stripe) != stamp){
+                return(currentTask);
+            }
+            return(actionableTask);
+        });
+    }
+
+    public void invalidate(DatagridElementKeyInterface taskKey){
+        if(taskKey == null){
+            return;
+        }
+        getGenerations().incrementAndGet(stripe(taskKey));
+        getNearCache().invalidate(taskKey);
+    }
+
+    public void invalidateAll(){
+        for(int stripe = 0; stripe < getGenerations().length(); stripe += 1){
+            getGenerations().incrementAndGet(stripe);
+        }
+        getNearCache().invalidateAll();
+    }
+
+    protected int stripe(DatagridElementKeyInterface taskKey){
+        int hash = taskKey.hashCode();
+        hash ^= (hash >>> 16);
+        return(hash & (GENERATION_STRIPES - 1));
+    }
+
+    @Override
+    public void onActionableTaskCacheEvent(ActionableTaskCacheEvent event) {
+        getLogger().trace(".onActionableTaskCacheEvent(): Invalidating, event->{}", event);
+        invalidate(event.getTaskKey());
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    protected Logger getLogger(){
+        return(LOG);
+    }
+
+    protected Cache<DatagridElementKeyInterface, PetasosActionableTask> getNearCache(){
+        return(nearCache);
+    }
+
+    protected AtomicLongArray getGenerations(){
+        return(generations);
+    }
+
+    public long getSize(){
+        return(getNearCache().estimatedSize());
+    }
+
+    public double getHitRate(){
+        return(getNearCache().stats().hitRate());
+    }
+
+    public long getMaxCount(){
+        return(maxCount);
+    }
+
+    public long getLifespan(){
+        return(lifespan);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskNearCache{" +
+                "size=" + getSize() +
+                ", maxCount=" + maxCount +
+                ", lifespan=" + lifespan +
+                ", stats=" + getNearCache().stats() +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload;
+
+import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The outcome of PonosPayloadStore.externalise(): the (Ponos owned) copy of a task to be stored, with its larger
+ * payloads replaced by PonosPayloadReferences, the hashes of those payloads, the digest of the task's body (see
+ * PonosPayloadStore.digestTaskBody()) and a future that completes once the task's references to them have been
+ * recorded in the store. The task must not be written until then.
+ */
+public class PonosExternalisedTask {
+    private PetasosActionableTask storedTask;
+    private Set<String> payloadHashes;
+    private String bodyDigest;
+    private CompletableFuture<Void> payloadReferencesFuture;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosExternalisedTask(PetasosActionableTask storedTask, Set<String> payloadHashes, String bodyDigest, CompletableFuture<Void> payloadReferencesFuture){
+        this.storedTask = storedTask;
+        this.payloadHashes = Collections.unmodifiableSet(new HashSet<>(payloadHashes));
+        this.bodyDigest = bodyDigest;
+        this.payloadReferencesFuture = payloadReferencesFuture;
+    }
+
+    //
+    // Getters
+    //
+
+    public PetasosActionableTask getStoredTask() {
+        return (storedTask);
+    }
+
+    public Set<String> getPayloadHashes() {
+        return (payloadHashes);
+    }
+
+    public String getBodyDigest() {
+        return (bodyDigest);
+    }
+
+    public CompletableFuture<Void> getPayloadReferencesFuture() {
+        return (payloadReferencesFuture);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosExternalisedTask{" +
+                "taskId=" + (storedTask == null ? null : storedTask.getTaskId()) +
+                ", payloadHashes=" + payloadHashes +
+                '}';
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A PonosPayloadStore entry: the payload content and the (keys of the) tasks that reference it. The entry lives
+ * exactly as long as at least one task references it.
+ *
+ * An entry is an immutable snapshot: changes are made by writing a new entry.
+ */
+public class PonosPayloadEntry implements Serializable {
+    private String payloadContent;
+    private Set<DatagridElementKeyInterface> referencingTasks;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosPayloadEntry(String payloadContent, Set<DatagridElementKeyInterface> referencingTasks){
+        this.payloadContent = payloadContent;
+        this.referencingTasks = Collections.unmodifiableSet(new HashSet<>(referencingTasks));
+    }
+
+    //
+    // Business Methods
+    //
+
+    public boolean isReferencedBy(DatagridElementKeyInterface taskKey){
+        return(referencingTasks.contains(taskKey));
+    }
+
+    public PonosPayloadEntry withReference(DatagridElementKeyInterface taskKey){
+        Set<DatagridElementKeyInterface> updatedReferences = new HashSet<>(referencingTasks);
+        updatedReferences.add(taskKey);
+        return(new PonosPayloadEntry(payloadContent, updatedReferences));
+    }
+
+    public PonosPayloadEntry withoutReference(DatagridElementKeyInterface taskKey){
+        Set<DatagridElementKeyInterface> updatedReferences = new HashSet<>(referencingTasks);
+        updatedReferences.remove(taskKey);
+        return(new PonosPayloadEntry(payloadContent, updatedReferences));
+    }
+
+    //
+    // Getters
+    //
+
+    public String getPayloadContent() {
+        return (payloadContent);
+    }
+
+    public Set<DatagridElementKeyInterface> getReferencingTasks() {
+        return (referencingTasks);
+    }
+
+    public boolean isUnreferenced(){
+        boolean unreferenced = referencingTasks.isEmpty();
+        return(unreferenced);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosPayloadEntry{" +
+                "payloadLength=" + (payloadContent == null ? 0 : payloadContent.length()) +
+                ", referencingTasks=" + referencingTasks +
+                '}';
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload;
+
+import net.fhirfactory.pegacorn.core.model.petasos.uow.UoWPayload;
+
+import java.util.Objects;
+
+/**
+ * Stands in for a UoWPayload (within a stored task) whose payload content is held in the PonosPayloadStore: it
+ * carries the UoWPayload's manifest, but not its content - just the (content) hash the content is stored under.
+ *
+ * Equality is by hash (rather than by the, absent, content), so stand-ins for different payloads held within the same
+ * set are not collapsed into one.
+ */
+public class PonosPayloadReference extends UoWPayload {
+    private String payloadHash;
+    private int payloadLength;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosPayloadReference(){
+        super();
+        this.payloadHash = null;
+        this.payloadLength = 0;
+    }
+
+    public PonosPayloadReference(UoWPayload payload, String payloadHash){
+        super();
+        setPayloadManifest(payload.getPayloadManifest());
+        this.payloadHash = payloadHash;
+        this.payloadLength = payload.getPayload() != null ? payload.getPayload().length() : 0;
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    public String getPayloadHash() {
+        return (payloadHash);
+    }
+
+    public void setPayloadHash(String payloadHash) {
+        this.payloadHash = payloadHash;
+    }
+
+    public int getPayloadLength() {
+        return (payloadLength);
+    }
+
+    public void setPayloadLength(int payloadLength) {
+        this.payloadLength = payloadLength;
+    }
+
+    //
+    // Equals and HashCode
+    //
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PonosPayloadReference)) return false;
+        PonosPayloadReference that = (PonosPayloadReference) o;
+        return Objects.equals(payloadHash, that.payloadHash) && Objects.equals(getPayloadManifest(), that.getPayloadManifest());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(payloadHash);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosPayloadReference{" +
+                "payloadManifest=" + getPayloadManifest() +
+                ", payloadHash=" + payloadHash +
+                ", payloadLength=" + payloadLength +
+                '}';
+    }
+}
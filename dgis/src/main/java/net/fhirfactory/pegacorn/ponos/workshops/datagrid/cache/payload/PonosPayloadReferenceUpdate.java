@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import org.infinispan.functional.EntryView;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.function.Function;
+
+/**
+ * Adds (or releases) a task's reference to a PonosPayloadStore entry, on the owner(s) of the entry, so concurrent
+ * references from different Ponos instances cannot overwrite one another.
+ *
+ * Adding creates the entry if it does not exist - which is only possible if the payload content was shipped with the
+ * update; apply() returns false if it was not (the caller then retries with the content). Adding a reference the
+ * entry already holds writes nothing. Releasing the last reference removes the entry.
+ */
+public class PonosPayloadReferenceUpdate implements Function<EntryView.ReadWriteEntryView<String, PonosPayloadEntry>, Boolean>, Serializable {
+
+    private DatagridElementKeyInterface taskKey;
+    private String payloadContent;
+    private boolean release;
+
+    //
+    // Constructor(s)
+    //
+
+    private PonosPayloadReferenceUpdate(DatagridElementKeyInterface taskKey, String payloadContent, boolean release){
+        this.taskKey = taskKey;
+        this.payloadContent = payloadContent;
+        this.release = release;
+    }
+
+    public static PonosPayloadReferenceUpdate addReference(DatagridElementKeyInterface taskKey, String payloadContent){
+        return(new PonosPayloadReferenceUpdate(taskKey, payloadContent, false));
+    }
+
+    public static PonosPayloadReferenceUpdate releaseReference(DatagridElementKeyInterface taskKey){
+        return(new PonosPayloadReferenceUpdate(taskKey, null, true));
+    }
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public Boolean apply(EntryView.ReadWriteEntryView<String, PonosPayloadEntry> entryView) {
+        PonosPayloadEntry currentEntry = entryView.find().orElse(null);
+        if(release){
+            if(currentEntry == null || !currentEntry.isReferencedBy(taskKey)){
+                return(true);
+            }
+            PonosPayloadEntry updatedEntry = currentEntry.withoutReference(taskKey);
+            if(updatedEntry.isUnreferenced()){
+                entryView.remove();
+            } else {
+                entryView.set(updatedEntry);
+            }
+            return(true);
+        }
+        if(currentEntry == null){
+            if(payloadContent == null){
+                return(false);
+            }
+            entryView.set(new PonosPayloadEntry(payloadContent, Collections.singleton(taskKey)));
+            return(true);
+        }
+        if(!currentEntry.isReferencedBy(taskKey)){
+            entryView.set(currentEntry.withReference(taskKey));
+        }
+        return(true);
+    }
+
+    //
+    // Getters
+    //
+
+    public DatagridElementKeyInterface getTaskKey() {
+        return (taskKey);
+    }
+
+    public boolean isRelease() {
+        return (release);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosPayloadReferenceUpdate{" +
+                "taskKey=" + taskKey +
+                ", payloadLength=" + (payloadContent == null ? 0 : payloadContent.length()) +
+                ", release=" + release +
+                '}';
+    }
+}
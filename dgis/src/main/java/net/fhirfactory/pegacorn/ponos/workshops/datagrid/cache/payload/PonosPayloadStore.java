@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.payload;
+
+import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
+import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.work.datatypes.TaskWorkItemType;
+import net.fhirfactory.pegacorn.core.model.petasos.uow.UoWPayload;
+import org.apache.commons.lang3.SerializationException;
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.infinispan.functional.FunctionalMap;
+import org.infinispan.functional.impl.FunctionalMapImpl;
+import org.infinispan.functional.impl.ReadWriteMapImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A content-addressed store of UoWPayload content: each distinct payload is held once, under the (SHA-256) hash of
+ * its content, however many tasks carry it - e.g. every task of a journey carries the journey's ingres payload.
+ *
+ * The task cache services externalise each task once per write, before the task's record is merged: the (larger)
+ * payloads of the task's work item - its ingres payload and egress payload elements - are hashed, the task's
+ * references to them are recorded in the store and the task is stored with PonosPayloadReferences in their place.
+ * Reads resolve the references again, by setting each resolved payload back into the work item of a task instance the
+ * reader owns (see resolveInPlace()) - only the work item's payloads are ever externalised, so no other part of the
+ * task needs to be visited.
+ *
+ * Each write also digests the task's body - its stored form less its status (TaskFulfillment, TaskOutcomeStatus and
+ * TaskCompletionSummary) - so a later update that changes only the status can be shipped as an ActionableTaskStatusDelta
+ * and checked, on the owner, against the body it is applied to.
+ *
+ * Each entry records the (keys of the) tasks referencing it, and is removed when the last of them releases it - i.e.
+ * when the last referencing task is retired from the task cache. A reference that cannot be resolved is therefore a
+ * fault, and is logged as an error rather than passed over.
+ */
+public class PonosPayloadStore {
+    private static final Logger LOG = LoggerFactory.getLogger(PonosPayloadStore.class);
+
+    private static final int MIN_EXTERNALISED_PAYLOAD_LENGTH = 1024;
+    private static final int COPY_BUFFER_SIZE = 8192;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private Cache<String, PonosPayloadEntry> payloadCache;
+    private FunctionalMap.ReadWriteMap<String, PonosPayloadEntry> payloadReadWriteMap;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosPayloadStore(Cache<String, PonosPayloadEntry> payloadCache){
+        this.payloadCache = payloadCache;
+        this.payloadReadWriteMap = ReadWriteMapImpl.create(FunctionalMapImpl.create(payloadCache.getAdvancedCache()));
+    }
+
+    //
+    // Business Methods
+    //
+
+    public boolean isExternalisable(UoWPayload payload){
+        if(payload == null || payload instanceof PonosPayloadReference || payload.getPayload() == null){
+            return(false);
+        }
+        return(payload.getPayload().length() >= MIN_EXTERNALISED_PAYLOAD_LENGTH);
+    }
+
+    /**
+     * Creates the copy of a task that is to be stored: each (larger) work item payload is hashed - once - and replaced
+     * by a PonosPayloadReference, and the task's reference to the payload is recorded in the store (the content is
+     * only shipped where the store does not already hold it locally). The caller's task is not modified.
+     *
+     * @param actionableTask the task being written
+     * @param taskKey the (task cache) key of the task
+     * @return the copy to store, the hashes of its externalised payloads and the future of their references
+     */
+    public PonosExternalisedTask externalise(PetasosActionableTask actionableTask, DatagridElementKeyInterface taskKey){
+        getLogger().debug(".externalise(): Entry, taskKey->{}", taskKey);
+        Map<String, String> externalisedPayloads = new HashMap<>();
+        Set<UoWPayload> workItemPayloads = getWorkItemPayloads(actionableTask);
+        Map<UoWPayload, String> payloadHashCache = new IdentityHashMap<>();
+        String bodyDigest = digestTaskBody(actionableTask, workItemPayloads, payloadHashCache);
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream(COPY_BUFFER_SIZE);
+        try (ObjectOutputStream objectStream = new PayloadExternalisingObjectOutputStream(byteStream, workItemPayloads, payloadHashCache, externalisedPayloads, Collections.emptySet())) {
+            objectStream.writeObject(actionableTask);
+        } catch (IOException ex) {
+            throw new SerializationException("Unable to externalise the payloads of task " + taskKey, ex);
+        }
+        PetasosActionableTask storedTask = readTask(byteStream.toByteArray(), taskKey);
+        List<CompletableFuture<Boolean>> referenceFutures = new ArrayList<>();
+        for(Map.Entry<String, String> currentPayload: externalisedPayloads.entrySet()){
+            referenceFutures.add(addReference(currentPayload.getKey(), currentPayload.getValue(), taskKey));
+        }
+        CompletableFuture<Void> payloadReferencesFuture = CompletableFuture.allOf(referenceFutures.toArray(new CompletableFuture[0]));
+        getLogger().debug(".externalise(): Exit, number of externalised payloads->{}", externalisedPayloads.size());
+        return(new PonosExternalisedTask(storedTask, externalisedPayloads.keySet(), bodyDigest, payloadReferencesFuture));
+    }
+
+    /**
+     * Digests the body of a task - its stored form (payloads replaced by their references) less its TaskFulfillment,
+     * TaskOutcomeStatus and TaskCompletionSummary. Two tasks with the same body digest differ in their status only.
+     * Nothing is written to the store.
+     *
+     * @param actionableTask the task being written
+     * @return the (SHA-256, hex) digest of the task's body
+     */
+    public String digestTaskBody(PetasosActionableTask actionableTask){
+        return(digestTaskBody(actionableTask, getWorkItemPayloads(actionableTask), new IdentityHashMap<>()));
+    }
+
+    /**
+     * Returns a copy of a stored task with its PonosPayloadReferences resolved back into UoWPayloads - for a task
+     * instance the caller does not own (i.e. one held by the cache itself). The (immutable) payload content is shared
+     * with the store rather than copied, so the cost of the copy is that of the task's structure only.
+     *
+     * @param storedTask the task as held in the task cache
+     * @return the resolved copy, or null if storedTask is null
+     */
+    public PetasosActionableTask resolve(PetasosActionableTask storedTask){
+        if(storedTask == null){
+            return(null);
+        }
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream(COPY_BUFFER_SIZE);
+        try (ObjectOutputStream objectStream = new ObjectOutputStream(byteStream)) {
+            objectStream.writeObject(storedTask);
+        } catch (IOException ex) {
+            throw new SerializationException("Unable to copy task " + storedTask.getTaskId(), ex);
+        }
+        return(resolveInPlace(readTask(byteStream.toByteArray(), storedTask.getTaskId())));
+    }
+
+    /**
+     * Resolves the PonosPayloadReferences of a task instance the caller owns (e.g. one just deserialised from another
+     * owner of its record) back into UoWPayloads, by setting them into the task's work item - no copy is made.
+     *
+     * @param ownedTask the (stored form of the) task, which is modified
+     * @return ownedTask, or null if ownedTask is null
+     */
+    public PetasosActionableTask resolveInPlace(PetasosActionableTask ownedTask){
+        if(ownedTask == null || ownedTask.getTaskWorkItem() == null){
+            return(ownedTask);
+        }
+        TaskWorkItemType workItem = ownedTask.getTaskWorkItem();
+        if(workItem.getIngresContent() instanceof PonosPayloadReference){
+            workItem.setIngresContent(resolveReference((PonosPayloadReference)workItem.getIngresContent()));
+        }
+        if(workItem.getEgressContent() != null && workItem.getEgressContent().getPayloadElements() != null){
+            Collection<UoWPayload> egressPayloads = workItem.getEgressContent().getPayloadElements();
+            List<PonosPayloadReference> egressReferences = new ArrayList<>();
+            for(UoWPayload currentPayload: egressPayloads){
+                if(currentPayload instanceof PonosPayloadReference){
+                    egressReferences.add((PonosPayloadReference)currentPayload);
+                }
+            }
+            for(PonosPayloadReference currentReference: egressReferences){
+                egressPayloads.remove(currentReference);
+                egressPayloads.add(resolveReference(currentReference));
+            }
+        }
+        return(ownedTask);
+    }
+
+    /**
+     * Releases a (retired) task's references to the given payloads, removing any payload no other task references.
+     *
+     * @param payloadHashes the hashes of the payloads the task referenced
+     * @param taskKey the (task cache) key of the task
+     */
+    public void release(Collection<String> payloadHashes, DatagridElementKeyInterface taskKey){
+        getLogger().debug(".release(): Entry, taskKey->{}, payloadHashes->{}", taskKey, payloadHashes);
+        if(payloadHashes == null || payloadHashes.isEmpty()){
+            getLogger().debug(".release(): Exit, nothing to release");
+            return;
+        }
+        List<CompletableFuture<Boolean>> releaseFutures = new ArrayList<>();
+        for(String currentPayloadHash: payloadHashes){
+            releaseFutures.add(getPayloadReadWriteMap().eval(currentPayloadHash, PonosPayloadReferenceUpdate.releaseReference(taskKey)));
+        }
+        CompletableFuture.allOf(releaseFutures.toArray(new CompletableFuture[0])).join();
+        getLogger().debug(".release(): Exit");
+    }
+
+    /**
+     * Returns the payload content stored under the hash - read locally where the store holds it, otherwise from its
+     * owner(s).
+     *
+     * @param payloadHash the (SHA-256, hex) hash of the content
+     * @return the payload content, or null if it is not stored
+     */
+    public String getPayloadContent(String payloadHash){
+        if(payloadHash == null){
+            return(null);
+        }
+        PonosPayloadEntry payloadEntry = getPayloadCache().getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).get(payloadHash);
+        if(payloadEntry == null){
+            payloadEntry = getPayloadCache().get(payloadHash);
+        }
+        if(payloadEntry == null){
+            return(null);
+        }
+        return(payloadEntry.getPayloadContent());
+    }
+
+    //
+    // Helpers
+    //
+
+    protected CompletableFuture<Boolean> addReference(String payloadHash, String payloadContent, DatagridElementKeyInterface taskKey){
+        boolean storedLocally = getPayloadCache().getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).containsKey(payloadHash);
+        if(!storedLocally){
+            return(getPayloadReadWriteMap().eval(payloadHash, PonosPayloadReferenceUpdate.addReference(taskKey, payloadContent)));
+        }
+        return(getPayloadReadWriteMap().eval(payloadHash, PonosPayloadReferenceUpdate.addReference(taskKey, null))
+                .thenCompose(added -> {
+                    if(added){
+                        return(CompletableFuture.completedFuture(true));
+                    }
+                    // the entry was released (removed) after the local check, so ship the content after all
+                    return(getPayloadReadWriteMap().eval(payloadHash, PonosPayloadReferenceUpdate.addReference(taskKey, payloadContent)));
+                }));
+    }
+
+    protected Set<UoWPayload> getWorkItemPayloads(PetasosActionableTask actionableTask){
+        Set<UoWPayload> workItemPayloads = Collections.newSetFromMap(new IdentityHashMap<>());
+        TaskWorkItemType workItem = actionableTask.getTaskWorkItem();
+        if(workItem != null){
+            if(workItem.getIngresContent() != null){
+                workItemPayloads.add(workItem.getIngresContent());
+            }
+            if(workItem.getEgressContent() != null && workItem.getEgressContent().getPayloadElements() != null){
+                workItemPayloads.addAll(workItem.getEgressContent().getPayloadElements());
+            }
+        }
+        return(workItemPayloads);
+    }
+
+    protected String digestTaskBody(PetasosActionableTask actionableTask, Set<UoWPayload> workItemPayloads, Map<UoWPayload, String> payloadHashCache){
+        Set<Object> statusParts = Collections.newSetFromMap(new IdentityHashMap<>());
+        if(actionableTask.getTaskFulfillment() != null){
+            statusParts.add(actionableTask.getTaskFulfillment());
+        }
+        if(actionableTask.getTaskOutcomeStatus() != null){
+            statusParts.add(actionableTask.getTaskOutcomeStatus());
+        }
+        if(actionableTask.hasTaskCompletionSummary()){
+            statusParts.add(actionableTask.getTaskCompletionSummary());
+        }
+        MessageDigest digest = newDigest();
+        OutputStream discardingStream = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+        try (ObjectOutputStream objectStream = new PayloadExternalisingObjectOutputStream(new DigestOutputStream(discardingStream, digest), workItemPayloads, payloadHashCache, new HashMap<>(), statusParts)) {
+            objectStream.writeObject(actionableTask);
+        } catch (IOException ex) {
+            throw new SerializationException("Unable to digest task " + actionableTask.getTaskId(), ex);
+        }
+        return(toHex(digest.digest()));
+    }
+
+    protected UoWPayload resolveReference(PonosPayloadReference payloadReference){
+        UoWPayload payload = new UoWPayload();
+        payload.setPayloadManifest(payloadReference.getPayloadManifest());
+        String payloadContent = getPayloadContent(payloadReference.getPayloadHash());
+        if(payloadContent == null){
+            getLogger().error(".resolveReference(): Payload content is missing from the payload store (a referencing task was not retired through the store), payloadReference->{}", payloadReference);
+        }
+        payload.setPayload(payloadContent);
+        return(payload);
+    }
+
+    protected PetasosActionableTask readTask(byte[] taskBytes, Object taskIdentity){
+        try (ObjectInputStream objectStream = new ObjectInputStream(new ByteArrayInputStream(taskBytes))) {
+            return((PetasosActionableTask)objectStream.readObject());
+        } catch (IOException | ClassNotFoundException ex) {
+            throw new SerializationException("Unable to copy task " + taskIdentity, ex);
+        }
+    }
+
+    protected String hash(String payloadContent){
+        return(toHex(newDigest().digest(payloadContent.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    protected MessageDigest newDigest(){
+        try {
+            return(MessageDigest.getInstance("SHA-256"));
+        } catch(NoSuchAlgorithmException ex){
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    protected String toHex(byte[] hashBytes){
+        char[] hashChars = new char[hashBytes.length * 2];
+        for(int counter = 0; counter < hashBytes.length; counter += 1){
+            hashChars[counter * 2] = HEX_DIGITS[(hashBytes[counter] >> 4) & 0x0F];
+            hashChars[counter * 2 + 1] = HEX_DIGITS[hashBytes[counter] & 0x0F];
+        }
+        return(new String(hashChars));
+    }
+
+    //
+    // Payload Externalising Stream
+    //
+
+    private class PayloadExternalisingObjectOutputStream extends ObjectOutputStream {
+        private Set<UoWPayload> workItemPayloads;
+        private Map<UoWPayload, String> payloadHashCache;
+        private Map<String, String> externalisedPayloads;
+        private Set<Object> omittedObjects;
+
+        PayloadExternalisingObjectOutputStream(OutputStream outputStream, Set<UoWPayload> workItemPayloads, Map<UoWPayload, String> payloadHashCache, Map<String, String> externalisedPayloads, Set<Object> omittedObjects) throws IOException {
+            super(outputStream);
+            this.workItemPayloads = workItemPayloads;
+            this.payloadHashCache = payloadHashCache;
+            this.externalisedPayloads = externalisedPayloads;
+            this.omittedObjects = omittedObjects;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object object) throws IOException {
+            if(omittedObjects.contains(object)){
+                return(null);
+            }
+            if(object instanceof UoWPayload && workItemPayloads.contains(object) && isExternalisable((UoWPayload)object)){
+                UoWPayload payload = (UoWPayload)object;
+                String payloadHash = payloadHashCache.computeIfAbsent(payload, currentPayload -> hash(currentPayload.getPayload()));
+                externalisedPayloads.put(payloadHash, payload.getPayload());
+                return(new PonosPayloadReference(payload, payloadHash));
+            }
+            return(object);
+        }
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    protected Logger getLogger(){
+        return(LOG);
+    }
+
+    protected Cache<String, PonosPayloadEntry> getPayloadCache(){
+        return(payloadCache);
+    }
+
+    protected FunctionalMap.ReadWriteMap<String, PonosPayloadEntry> getPayloadReadWriteMap(){
+        return(payloadReadWriteMap);
+    }
+
+    public int getSize(){
+        return(getPayloadCache().size());
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.query;
+
+import net.fhirfactory.pegacorn.core.model.componentid.ComponentIdType;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.fulfillment.valuesets.FulfillmentExecutionStatusEnum;
+import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.status.valuesets.ActionableTaskOutcomeStatusEnum;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * The criteria (and page) of a query over the (indexed) PetasosActionableTask cache. Every criterion is optional - a
+ * null criterion does not constrain the result - and the criteria that are set are combined (AND). The instant ranges
+ * are inclusive of their "from" and exclusive of their "to" bound.
+ *
+ * Results are ordered by registration instant (oldest first), so successive pages are stable.
+ */
+public class PonosActionableTaskQuery implements Serializable {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private FulfillmentExecutionStatusEnum fulfillmentStatus;
+    private ActionableTaskOutcomeStatusEnum outcomeStatus;
+    private String fulfillerParticipantName;
+    private ComponentIdType fulfillerComponentId;
+    private Instant registeredFrom;
+    private Instant registeredTo;
+    private Instant startedFrom;
+    private Instant startedTo;
+    private Instant finishedFrom;
+    private Instant finishedTo;
+    private int offset;
+    private int pageSize;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosActionableTaskQuery(){
+        this.offset = 0;
+        this.pageSize = DEFAULT_PAGE_SIZE;
+    }
+
+    //
+    // Getters and Setters
+    //
+
+    public FulfillmentExecutionStatusEnum getFulfillmentStatus() {
+        return fulfillmentStatus;
+    }
+
+    public void setFulfillmentStatus(FulfillmentExecutionStatusEnum fulfillmentStatus) {
+        this.fulfillmentStatus = fulfillmentStatus;
+    }
+
+    public ActionableTaskOutcomeStatusEnum getOutcomeStatus() {
+        return outcomeStatus;
+    }
+
+    public void setOutcomeStatus(ActionableTaskOutcomeStatusEnum outcomeStatus) {
+        this.outcomeStatus = outcomeStatus;
+    }
+
+    public String getFulfillerParticipantName() {
+        return fulfillerParticipantName;
+    }
+
+    public void setFulfillerParticipantName(String fulfillerParticipantName) {
+        this.fulfillerParticipantName = fulfillerParticipantName;
+    }
+
+    public ComponentIdType getFulfillerComponentId() {
+        return fulfillerComponentId;
+    }
+
+    public void setFulfillerComponentId(ComponentIdType fulfillerComponentId) {
+        this.fulfillerComponentId = fulfillerComponentId;
+    }
+
+    public Instant getRegisteredFrom() {
+        return registeredFrom;
+    }
+
+    public void setRegisteredFrom(Instant registeredFrom) {
+        this.registeredFrom = registeredFrom;
+    }
+
+    public Instant getRegisteredTo() {
+        return registeredTo;
+    }
+
+    public void setRegisteredTo(Instant registeredTo) {
+        this.registeredTo = registeredTo;
+    }
+
+    public Instant getStartedFrom() {
+        return startedFrom;
+    }
+
+    public void setStartedFrom(Instant startedFrom) {
+        this.startedFrom = startedFrom;
+    }
+
+    public Instant getStartedTo() {
+        return startedTo;
+    }
+
+    public void setStartedTo(Instant startedTo) {
+        this.startedTo = startedTo;
+    }
+
+    public Instant getFinishedFrom() {
+        return finishedFrom;
+    }
+
+    public void setFinishedFrom(Instant finishedFrom) {
+        this.finishedFrom = finishedFrom;
+    }
+
+    public Instant getFinishedTo() {
+        return finishedTo;
+    }
+
+    public void setFinishedTo(Instant finishedTo) {
+        this.finishedTo = finishedTo;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosActionableTaskQuery{" +
+                "fulfillmentStatus=" + fulfillmentStatus +
+                ", outcomeStatus=" + outcomeStatus +
+                ", fulfillerParticipantName=" + fulfillerParticipantName +
+                ", fulfillerComponentId=" + fulfillerComponentId +
+                ", registeredFrom=" + registeredFrom +
+                ", registeredTo=" + registeredTo +
+                ", startedFrom=" + startedFrom +
+                ", startedTo=" + startedTo +
+                ", finishedFrom=" + finishedFrom +
+                ", finishedTo=" + finishedTo +
+                ", offset=" + offset +
+                ", pageSize=" + pageSize +
+                '}';
+    }
+}
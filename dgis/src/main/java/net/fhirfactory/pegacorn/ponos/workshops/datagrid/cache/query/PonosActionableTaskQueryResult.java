@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.query;
+
+import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of the tasks matching a PonosActionableTaskQuery, along with the total number of matching tasks (so the
+ * caller can determine whether there are further pages).
+ */
+public class PonosActionableTaskQueryResult implements Serializable {
+    private List<PetasosActionableTask> tasks;
+    private int offset;
+    private int pageSize;
+    private long totalMatches;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosActionableTaskQueryResult(){
+        this.tasks = new ArrayList<>();
+        this.offset = 0;
+        this.pageSize = 0;
+        this.totalMatches = 0;
+    }
+
+    //
+    // Business Methods
+    //
+
+    public boolean hasMorePages(){
+        boolean hasMore = (offset + tasks.size()) < totalMatches;
+        return(hasMore);
+    }
+
+    //
+    // Getters and Setters
+    //
+
+    public List<PetasosActionableTask> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<PetasosActionableTask> tasks) {
+        this.tasks = tasks;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public long getTotalMatches() {
+        return totalMatches;
+    }
+
+    public void setTotalMatches(long totalMatches) {
+        this.totalMatches = totalMatches;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosActionableTaskQueryResult{" +
+                "tasks(count)=" + tasks.size() +
+                ", offset=" + offset +
+                ", pageSize=" + pageSize +
+                ", totalMatches=" + totalMatches +
+                '}';
+    }
+}
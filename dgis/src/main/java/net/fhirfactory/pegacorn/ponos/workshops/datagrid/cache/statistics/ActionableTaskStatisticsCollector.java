@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.statistics;
+
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosActionableTaskRecord;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.datatypes.PonosTaskCacheKey;
+import org.infinispan.Cache;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.query.Search;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.QueryFactory;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Collects the PonosActionableTaskStatistics of one Ponos instance's part of the task cache - run on every member of
+ * the cluster (via the cluster executor), with the per-instance results merged by the caller.
+ *
+ * Each instance pages through its own (local) index with a projection of the stored statistics fields, and counts
+ * only the records it is the primary owner of - so every record is counted exactly once across the cluster, however
+ * many owners hold it, and neither the records nor their tasks are read.
+ */
+public class ActionableTaskStatisticsCollector implements Function<EmbeddedCacheManager, PonosActionableTaskStatistics>, Serializable {
+    private static final String ACTIONABLE_TASK_RECORD_ENTITY = PonosActionableTaskRecord.class.getName();
+    private static final int STATISTICS_PAGE_SIZE = 1000;
+
+    private String taskCacheName;
+
+    //
+    // Constructor(s)
+    //
+
+    public ActionableTaskStatisticsCollector(String taskCacheName){
+        this.taskCacheName = taskCacheName;
+    }
+
+    //
+    // Business Methods
+    //
+
+    @Override
+    public PonosActionableTaskStatistics apply(EmbeddedCacheManager cacheManager) {
+        PonosActionableTaskStatistics statistics = new PonosActionableTaskStatistics();
+        if(!cacheManager.isRunning(taskCacheName)){
+            return(statistics);
+        }
+        Cache<Object, Object> taskCache = cacheManager.getCache(taskCacheName);
+        DistributionManager distributionManager = taskCache.getAdvancedCache().getDistributionManager();
+        QueryFactory queryFactory = Search.getQueryFactory(taskCache);
+        Query<Object[]> query = queryFactory.create("SELECT r.taskId, r.fulfillmentStatus, r.outcomeStatus, r.fulfillerParticipantName, r.registrationInstant FROM " + ACTIONABLE_TASK_RECORD_ENTITY + " r ORDER BY r.registrationInstant ASC");
+        query.local(true);
+        query.maxResults(STATISTICS_PAGE_SIZE);
+        int pageOffset = 0;
+        List<Object[]> rows;
+        do {
+            query.startOffset(pageOffset);
+            rows = query.execute().list();
+            for(Object[] currentRow: rows){
+                PonosTaskCacheKey currentKey = PonosTaskCacheKey.fromTaskIdValue((String)currentRow[0]);
+                if(currentKey == null){
+                    continue;
+                }
+                if(distributionManager != null && !distributionManager.getCacheTopology().getDistribution(currentKey).isPrimary()){
+                    continue;
+                }
+                statistics.addTask(currentRow[1], currentRow[2], currentRow[3], (Number)currentRow[4]);
+            }
+            pageOffset += rows.size();
+        } while(rows.size() == STATISTICS_PAGE_SIZE);
+        return(statistics);
+    }
+
+    //
+    // Getters
+    //
+
+    public String getTaskCacheName() {
+        return (taskCacheName);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "ActionableTaskStatisticsCollector{" +
+                "taskCacheName=" + taskCacheName +
+                '}';
+    }
+}
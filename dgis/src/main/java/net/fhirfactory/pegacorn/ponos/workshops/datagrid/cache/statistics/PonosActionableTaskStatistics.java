@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.statistics;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A summary of the content of the task cache: the number of tasks, broken down by fulfillment status, outcome status
+ * and fulfilling participant, and the registration instant of the oldest task. Each Ponos instance counts its own
+ * (primary owned) part of the task cache (see ActionableTaskStatisticsCollector) and the parts are merged.
+ */
+public class PonosActionableTaskStatistics implements Serializable {
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private long taskCount;
+    private Map<String, Long> fulfillmentStatusCounts;
+    private Map<String, Long> outcomeStatusCounts;
+    private Map<String, Long> participantCounts;
+    private Instant oldestRegistrationInstant;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosActionableTaskStatistics(){
+        this.taskCount = 0;
+        this.fulfillmentStatusCounts = new HashMap<>();
+        this.outcomeStatusCounts = new HashMap<>();
+        this.participantCounts = new HashMap<>();
+        this.oldestRegistrationInstant = null;
+    }
+
+    //
+    // Business Methods
+    //
+
+    /**
+     * Counts one task.
+     *
+     * @param fulfillmentStatus the task's fulfillment status (may be null)
+     * @param outcomeStatus the task's outcome status (may be null)
+     * @param participantName the task's fulfilling participant (may be null)
+     * @param registrationInstant the task's registration instant, epoch milliseconds (may be null)
+     */
+    public void addTask(Object fulfillmentStatus, Object outcomeStatus, Object participantName, Number registrationInstant){
+        taskCount += 1;
+        addTaskCount(fulfillmentStatusCounts, fulfillmentStatus, 1);
+        addTaskCount(outcomeStatusCounts, outcomeStatus, 1);
+        addTaskCount(participantCounts, participantName, 1);
+        if(registrationInstant != null){
+            addOldestRegistrationInstant(Instant.ofEpochMilli(registrationInstant.longValue()));
+        }
+    }
+
+    /**
+     * Adds another (e.g. another Ponos instance's) set of statistics to these.
+     *
+     * @param otherStatistics the statistics to add
+     */
+    public void merge(PonosActionableTaskStatistics otherStatistics){
+        if(otherStatistics == null){
+            return;
+        }
+        taskCount += otherStatistics.getTaskCount();
+        otherStatistics.getFulfillmentStatusCounts().forEach((groupName, count) -> fulfillmentStatusCounts.merge(groupName, count, Long::sum));
+        otherStatistics.getOutcomeStatusCounts().forEach((groupName, count) -> outcomeStatusCounts.merge(groupName, count, Long::sum));
+        otherStatistics.getParticipantCounts().forEach((groupName, count) -> participantCounts.merge(groupName, count, Long::sum));
+        addOldestRegistrationInstant(otherStatistics.getOldestRegistrationInstant());
+    }
+
+    protected void addOldestRegistrationInstant(Instant registrationInstant){
+        if(registrationInstant != null && (oldestRegistrationInstant == null || registrationInstant.isBefore(oldestRegistrationInstant))){
+            oldestRegistrationInstant = registrationInstant;
+        }
+    }
+
+    /**
+     * Adds the count for one group; tasks with no value for the grouped field are counted
+     * as UNKNOWN.
+     *
+     * @param taskCounts the counts (by fulfillment status, outcome status or participant) to add to
+     * @param groupValue the group's value (may be null)
+     * @param count the number of tasks in the group
+     */
+    public void addTaskCount(Map<String, Long> taskCounts, Object groupValue, Number count){
+        if(taskCounts == null || count == null){
+            return;
+        }
+        String groupName = UNKNOWN;
+        if(groupValue != null){
+            groupName = groupValue.toString();
+        }
+        taskCounts.merge(groupName, count.longValue(), Long::sum);
+    }
+
+    public long getOldestTaskAge(Instant referenceInstant){
+        if(oldestRegistrationInstant == null || referenceInstant == null){
+            return(0);
+        }
+        return(Math.max(0, referenceInstant.getEpochSecond() - oldestRegistrationInstant.getEpochSecond()));
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    public long getTaskCount() {
+        return (taskCount);
+    }
+
+    public void setTaskCount(long taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public Map<String, Long> getFulfillmentStatusCounts() {
+        return (fulfillmentStatusCounts);
+    }
+
+    public void setFulfillmentStatusCounts(Map<String, Long> fulfillmentStatusCounts) {
+        this.fulfillmentStatusCounts = fulfillmentStatusCounts;
+    }
+
+    public Map<String, Long> getOutcomeStatusCounts() {
+        return (outcomeStatusCounts);
+    }
+
+    public void setOutcomeStatusCounts(Map<String, Long> outcomeStatusCounts) {
+        this.outcomeStatusCounts = outcomeStatusCounts;
+    }
+
+    public Map<String, Long> getParticipantCounts() {
+        return (participantCounts);
+    }
+
+    public void setParticipantCounts(Map<String, Long> participantCounts) {
+        this.participantCounts = participantCounts;
+    }
+
+    public Instant getOldestRegistrationInstant() {
+        return (oldestRegistrationInstant);
+    }
+
+    public void setOldestRegistrationInstant(Instant oldestRegistrationInstant) {
+        this.oldestRegistrationInstant = oldestRegistrationInstant;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosActionableTaskStatistics{" +
+                "taskCount=" + taskCount +
+                ", fulfillmentStatusCounts=" + fulfillmentStatusCounts +
+                ", outcomeStatusCounts=" + outcomeStatusCounts +
+                ", participantCounts=" + participantCounts +
+                ", oldestRegistrationInstant=" + oldestRegistrationInstant +
+                '}';
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.statistics;
+
+import java.util.Arrays;
+
+/**
+ * The (sample based) estimate of the memory used by the (in-memory) entries a single node holds for a cache. Entry
+ * sizes are those of the entries' stored (encoded) key and value, or (for object entries) the estimate of them made by
+ * PonosCacheMemoryEstimator - container overheads are not included - and the size histogram is of the sampled
+ * entries, bucketed by (power of 4) entry size.
+ */
+public class PonosCacheMemoryStatistics {
+    private static final long[] BUCKET_UPPER_BOUNDS = {1024L, 4096L, 16384L, 65536L, 262144L, 1048576L, 4194304L};
+    private static final String[] BUCKET_LABELS = {"LE_1KB", "LE_4KB", "LE_16KB", "LE_64KB", "LE_256KB", "LE_1MB", "LE_4MB", "GT_4MB"};
+
+    private String cacheName;
+    private long entryCount;
+    private long sampleCount;
+    private long sampledBytes;
+    private long maxEntryBytes;
+    private long[] sizeHistogram;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosCacheMemoryStatistics(){
+        this.cacheName = null;
+        this.entryCount = 0;
+        this.sampleCount = 0;
+        this.sampledBytes = 0;
+        this.maxEntryBytes = 0;
+        this.sizeHistogram = new long[BUCKET_LABELS.length];
+    }
+
+    public PonosCacheMemoryStatistics(String cacheName){
+        this();
+        this.cacheName = cacheName;
+    }
+
+    //
+    // Business Methods
+    //
+
+    public void addSample(long entryBytes){
+        sampleCount += 1;
+        sampledBytes += entryBytes;
+        maxEntryBytes = Math.max(maxEntryBytes, entryBytes);
+        sizeHistogram[getBucket(entryBytes)] += 1;
+    }
+
+    public long getMeanEntryBytes(){
+        if(sampleCount == 0){
+            return(0);
+        }
+        return(sampledBytes / sampleCount);
+    }
+
+    /**
+     * @return the estimated bytes of all the (in-memory) entries - the mean sampled entry size times the entry count
+     */
+    public long getEstimatedTotalBytes(){
+        return(getMeanEntryBytes() * entryCount);
+    }
+
+    /**
+     * @param bucket the histogram bucket
+     * @return the estimated number of (in-memory) entries in the bucket - the bucket's sample count scaled up to the
+     * entry count
+     */
+    public long getEstimatedBucketCount(int bucket){
+        if(sampleCount == 0){
+            return(0);
+        }
+        return((sizeHistogram[bucket] * entryCount) / sampleCount);
+    }
+
+    public static int getBucketCount(){
+        return(BUCKET_LABELS.length);
+    }
+
+    public static String getBucketLabel(int bucket){
+        return(BUCKET_LABELS[bucket]);
+    }
+
+    //
+    // Helpers
+    //
+
+    private int getBucket(long entryBytes){
+        for(int bucket = 0; bucket < BUCKET_UPPER_BOUNDS.length; bucket += 1){
+            if(entryBytes <= BUCKET_UPPER_BOUNDS[bucket]){
+                return(bucket);
+            }
+        }
+        return(BUCKET_LABELS.length - 1);
+    }
+
+    //
+    // Getters (and Setters)
+    //
+
+    public String getCacheName() {
+        return (cacheName);
+    }
+
+    public void setCacheName(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public long getEntryCount() {
+        return (entryCount);
+    }
+
+    public void setEntryCount(long entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public long getSampleCount() {
+        return (sampleCount);
+    }
+
+    public long getSampledBytes() {
+        return (sampledBytes);
+    }
+
+    public long getMaxEntryBytes() {
+        return (maxEntryBytes);
+    }
+
+    public long[] getSizeHistogram() {
+        return (sizeHistogram);
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosCacheMemoryStatistics{" +
+                "cacheName=" + cacheName +
+                ", entryCount=" + entryCount +
+                ", sampleCount=" + sampleCount +
+                ", meanEntryBytes=" + getMeanEntryBytes() +
+                ", maxEntryBytes=" + maxEntryBytes +
+                ", estimatedTotalBytes=" + getEstimatedTotalBytes() +
+                ", sizeHistogram=" + Arrays.toString(sizeHistogram) +
+                '}';
+    }
+}
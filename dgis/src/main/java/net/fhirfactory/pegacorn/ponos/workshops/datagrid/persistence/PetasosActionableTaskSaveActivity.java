@@ -90,9 +90,26 @@ public class PetasosActionableTaskSaveActivity implements DatagridEntrySaveReque
     //
 
 
+    /**
+     * Saves the task held under the given (task cache) key - as passed by the task cache services when a task is
+     * archived. The key is a PonosTaskCacheKey, so the task is read from the task cache rather than derived from it.
+     *
+     * @param element the (task cache) key of the task to save
+     */
     @Override
     public void requestDatagridEntrySave(DatagridElementKeyInterface element) {
-
+        getLogger().debug(".requestDatagridEntrySave(): Entry, element->{}", element);
+        if(element == null){
+            getLogger().debug(".requestDatagridEntrySave(): Exit, element is null");
+            return;
+        }
+        PetasosActionableTask actionableTask = taskCacheServices.getPetasosActionableTask(element);
+        if(actionableTask == null){
+            getLogger().warn(".requestDatagridEntrySave(): Exit, task is no longer in the cache, element->{}", element);
+            return;
+        }
+        savePetasosActionableTask(actionableTask);
+        getLogger().debug(".requestDatagridEntrySave(): Exit");
     }
 
     public void savePetasosActionableTask(PetasosActionableTask actionableTask){
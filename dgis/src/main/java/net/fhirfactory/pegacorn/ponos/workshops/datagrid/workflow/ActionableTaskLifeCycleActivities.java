@@ -24,23 +24,39 @@ package net.fhirfactory.pegacorn.ponos.workshops.datagrid.workflow;
 import net.fhirfactory.pegacorn.core.interfaces.datagrid.DatagridElementKeyInterface;
 import net.fhirfactory.pegacorn.core.model.petasos.task.PetasosActionableTask;
 import net.fhirfactory.pegacorn.core.model.petasos.task.datatypes.identity.datatypes.TaskIdType;
-import net.fhirfactory.pegacorn.petasos.oam.metrics.agents.ProcessingPlantMetricsAgentAccessor;
+import net.fhirfactory.pegacorn.ponos.interfaces.PonosSubsystemDetailsInterface;
 import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.PonosPetasosActionableTaskCacheServices;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEvent;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventSubscriber;
+import net.fhirfactory.pegacorn.ponos.workshops.datagrid.cache.events.ActionableTaskCacheEventTypeEnum;
 import net.fhirfactory.pegacorn.services.tasks.cache.PetasosActionableTaskDM;
 import net.fhirfactory.pegacorn.services.tasks.datatypes.PetasosActionableTaskRegistrationType;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import java.time.Instant;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
-
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retires aged tasks from the ActionableTaskCache. Rather than polling, a retirement pass is scheduled for the moment
+ * the oldest task in the expiry index reaches the forced retirement age: a registration event schedules one (if none
+ * is pending) and each pass schedules the next from whatever remains in the index. There is at most one pending pass.
+ *
+ * Tasks can also enter the expiry index without a registration event - e.g. those indexed by the topology re-scan
+ * after a rebalance, or deferred by a pass because their primary owner had moved - and these may be older than the
+ * pending pass expects. So a low-frequency backstop also (re)schedules a pass from the oldest task in the index;
+ * it reads nothing but the index's oldest bucket, and the scheduling is coalesced as above.
+ */
 @ApplicationScoped
-public class ActionableTaskLifeCycleActivities {
+public class ActionableTaskLifeCycleActivities implements ActionableTaskCacheEventSubscriber {
     private static final Logger LOG = LoggerFactory.getLogger(ActionableTaskLifeCycleActivities.class);
 
     private boolean initialised;
@@ -50,16 +66,21 @@ public class ActionableTaskLifeCycleActivities {
     private boolean daemonIsStillRunning;
     private Instant daemonLastRunTime;
 
+    // Retirement passes run on this thread; nextRetirementRunSecond is the (epoch second) time of the pending pass
+    private ScheduledExecutorService retirementExecutor;
+    private Long nextRetirementRunSecond;
+
     private static Long TASK_PERSISTENCE_LIFECYCLE_DAEMON_STARTUP_DELAY = 60000L;
-    private static Long TASK_PERSISTENCE_LIFECYCLE_MANAGEMENT_DAEMON_CHECK_PERIOD = 10000L;
-    private static Long TASK_PERSISTENCE_LIFECYCLE_MANAGEMENT_DAEMON_RESET_PERIOD = 180L;
+    private static Long TASK_PERSISTENCE_LIFECYCLE_BACKSTOP_PERIOD = 300L;
     private static Long TASK_AGE_BEFORE_FORCED_RETIREMENT = 120L;
+    // When the task cache bounds its own memory (overflowing to disk), retirement no longer has to relieve the heap
+    private static Long TASK_AGE_BEFORE_FORCED_RETIREMENT_WHEN_MEMORY_BOUNDED = 1800L;
 
     @Inject
     private PonosPetasosActionableTaskCacheServices taskCacheServices;
 
     @Inject
-    private ProcessingPlantMetricsAgentAccessor metricsAgentAccessor;
+    private PonosSubsystemDetailsInterface ponosSubsystemDetails;
 
 //    @Inject
 //    private PetasosActionableTaskLoadActivity actionableTaskLoadActivity;
@@ -73,6 +94,7 @@ public class ActionableTaskLifeCycleActivities {
 
     public ActionableTaskLifeCycleActivities(){
         this.initialised = false;
+        this.nextRetirementRunSecond = null;
     }
 
     //
@@ -88,38 +110,89 @@ public class ActionableTaskLifeCycleActivities {
         }
         getLogger().info(".initialise(): Initialisation Start...");
 
-        scheduleTaskPersistenceLifecycleDaemon();
+        // Created here (not in the constructor) so that the container's client proxies of this bean never start threads
+        this.retirementExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread retirementThread = new Thread(runnable, "TaskPersistenceLifecycle");
+            retirementThread.setDaemon(true);
+            return(retirementThread);
+        });
+        getTaskCache().addTaskCacheEventSubscriber(this);
+        scheduleTaskPersistenceLifecycleDaemon(Instant.now().getEpochSecond() + (getTaskPersistenceLifecycleDaemonStartupDelay() / 1000L));
+        long backstopDelay = (getTaskPersistenceLifecycleDaemonStartupDelay() / 1000L) + getTaskPersistenceLifecycleBackstopPeriod();
+        retirementExecutor.scheduleWithFixedDelay(this::taskPersistenceLifecycleBackstop, backstopDelay, getTaskPersistenceLifecycleBackstopPeriod(), TimeUnit.SECONDS);
 
         this.initialised = true;
 
         getLogger().info(".initialise(): Initialisation Finish...");
     }
 
+    @PreDestroy
+    public void shutdown() {
+        getLogger().debug(".shutdown(): Entry");
+        if(retirementExecutor != null) {
+            retirementExecutor.shutdownNow();
+        }
+        getLogger().debug(".shutdown(): Exit");
+    }
+
     //
     // Daemon Scheduler
     //
 
-    private void scheduleTaskPersistenceLifecycleDaemon() {
-        getLogger().debug(".scheduleTaskPersistenceLifecycleDaemon(): Entry");
-        TimerTask taskPersitenceLifecycleDaemonTimerTask = new TimerTask() {
-            public void run() {
-                getLogger().debug(".taskStatusManagementDaemonTimerTask(): Entry");
-                if (!daemonIsStillRunning) {
-                    taskPersistenceLifecycleDaemon();
-                    setDaemonLastRunTime(Instant.now());
-                } else {
-                    Long ageSinceRun = Instant.now().getEpochSecond() - getDaemonLastRunTime().getEpochSecond();
-                    if (ageSinceRun > getTaskPersistenceLifecycleManagementDaemonResetPeriod()) {
-                        taskPersistenceLifecycleDaemon();
-                        setDaemonLastRunTime(Instant.now());
-                    }
-                }
-                getLogger().debug(".taskStatusManagementDaemonTimerTask(): Exit");
+    /**
+     * A newly registered task can only expire after every task already in the expiry index, so a registration only
+     * needs to schedule a pass when none is pending (the pass itself will schedule the next one).
+     *
+     * @param event the task cache event
+     */
+    @Override
+    public void onActionableTaskCacheEvent(ActionableTaskCacheEvent event) {
+        if(event.getEventType() == ActionableTaskCacheEventTypeEnum.TASK_REGISTERED){
+            scheduleTaskPersistenceLifecycleDaemon(Instant.now().getEpochSecond() + getTaskAgeBeforeForcedRetirement() + 1);
+        }
+    }
+
+    private synchronized void scheduleTaskPersistenceLifecycleDaemon(long runSecond) {
+        getLogger().debug(".scheduleTaskPersistenceLifecycleDaemon(): Entry, runSecond->{}", runSecond);
+        if(nextRetirementRunSecond != null && nextRetirementRunSecond <= runSecond){
+            getLogger().debug(".scheduleTaskPersistenceLifecycleDaemon(): Exit, a pass is already pending, nextRetirementRunSecond->{}", nextRetirementRunSecond);
+            return;
+        }
+        if(retirementExecutor == null || retirementExecutor.isShutdown()){
+            getLogger().debug(".scheduleTaskPersistenceLifecycleDaemon(): Exit, shutting down");
+            return;
+        }
+        nextRetirementRunSecond = runSecond;
+        long delay = Math.max(0L, runSecond - Instant.now().getEpochSecond());
+        retirementExecutor.schedule(this::taskPersistenceLifecycleDaemonTask, delay, TimeUnit.SECONDS);
+        getLogger().debug(".scheduleTaskPersistenceLifecycleDaemon(): Exit, delay->{}", delay);
+    }
+
+    private void taskPersistenceLifecycleBackstop(){
+        try {
+            Long earliestRegistrationSecond = getTaskCache().getEarliestTaskRegistrationSecond();
+            if(earliestRegistrationSecond != null){
+                scheduleTaskPersistenceLifecycleDaemon(earliestRegistrationSecond + getTaskAgeBeforeForcedRetirement() + 1);
             }
-        };
-        Timer timer = new Timer("TaskPersistenceLifecycleDaemonTimer");
-        timer.schedule(taskPersitenceLifecycleDaemonTimerTask, getTaskPersistenceLifecycleDaemonStartupDelay(), getTaskPersistenceLifecycleManagementDaemonCheckPeriod());
-        getLogger().debug(".scheduleTaskPersistenceLifecycleDaemon(): Exit");
+        } catch(Exception ex){
+            getLogger().warn(".taskPersistenceLifecycleBackstop(): Problem scheduling a retirement pass, message->{}", ExceptionUtils.getMessage(ex));
+        }
+    }
+
+    private void taskPersistenceLifecycleDaemonTask(){
+        synchronized (this) {
+            nextRetirementRunSecond = null;
+        }
+        try {
+            taskPersistenceLifecycleDaemon();
+        } catch(Exception ex){
+            getLogger().warn(".taskPersistenceLifecycleDaemonTask(): Problem retiring tasks, message->{}, stackTrace->{}", ExceptionUtils.getMessage(ex), ExceptionUtils.getStackTrace(ex));
+        }
+        Long earliestRegistrationSecond = getTaskCache().getEarliestTaskRegistrationSecond();
+        if(earliestRegistrationSecond != null){
+            // buckets are retired once strictly older than the cutoff, hence the extra second
+            scheduleTaskPersistenceLifecycleDaemon(earliestRegistrationSecond + getTaskAgeBeforeForcedRetirement() + 1);
+        }
     }
 
     //
@@ -129,24 +202,13 @@ public class ActionableTaskLifeCycleActivities {
     public void taskPersistenceLifecycleDaemon(){
         getLogger().debug(".taskPersistenceLifecycleDaemon(): Start");
         setDaemonIsStillRunning(true);
-
-
-        getLogger().info(".taskPersistenceLifecycleDaemon(): Update Metrics: Start");
-        int cacheSize = getTaskCache().getTaskCacheSize();
-        metricsAgentAccessor.getMetricsAgent().updateLocalCacheStatus("ActionableTaskCache", cacheSize);
-        getLogger().info(".taskPersistenceLifecycleDaemon(): Update Metrics: cacheSize->{}", cacheSize);
-        int registrationCacheSize = taskCacheServices.getTaskRegistrationCacheSize();
-        metricsAgentAccessor.getMetricsAgent().updateLocalCacheStatus("ActionableTaskRegistrationCache", registrationCacheSize);
-        getLogger().info(".taskPersistenceLifecycleDaemon(): Update Metrics: registrationCacheSize->{}", registrationCacheSize);
-        getLogger().info(".taskPersistenceLifecycleDaemon(): Update Metrics: Finish");
-
-        Set<DatagridElementKeyInterface> agedCacheContent = getTaskCache().getAgedCacheContent(TASK_AGE_BEFORE_FORCED_RETIREMENT);
+        Set<DatagridElementKeyInterface> agedCacheContent = getTaskCache().getAgedCacheContent(getTaskAgeBeforeForcedRetirement());
         for(DatagridElementKeyInterface currentKey: agedCacheContent){
             taskCacheServices.clearTaskFromCache(currentKey);
         }
         setDaemonIsStillRunning(false);
         setDaemonLastRunTime(Instant.now());
-        getLogger().debug(".taskPersistenceLifecycleDaemon(): Finish");
+        getLogger().debug(".taskPersistenceLifecycleDaemon(): Finish, retired->{}", agedCacheContent.size());
     }
 
     //
@@ -197,15 +259,18 @@ public class ActionableTaskLifeCycleActivities {
         return TASK_PERSISTENCE_LIFECYCLE_DAEMON_STARTUP_DELAY;
     }
 
-    protected static Long getTaskPersistenceLifecycleManagementDaemonCheckPeriod() {
-        return TASK_PERSISTENCE_LIFECYCLE_MANAGEMENT_DAEMON_CHECK_PERIOD;
+    protected static Long getTaskPersistenceLifecycleBackstopPeriod() {
+        return TASK_PERSISTENCE_LIFECYCLE_BACKSTOP_PERIOD;
     }
 
-    protected static Long getTaskPersistenceLifecycleManagementDaemonResetPeriod() {
-        return TASK_PERSISTENCE_LIFECYCLE_MANAGEMENT_DAEMON_RESET_PERIOD;
-    }
-
-    protected static Long getTaskAgeBeforeForcedRetirement() {
+    protected Long getTaskAgeBeforeForcedRetirement() {
+        Long configuredTaskAge = ponosSubsystemDetails.getTaskAgeBeforeForcedRetirement();
+        if(configuredTaskAge != null){
+            return(configuredTaskAge);
+        }
+        if(getTaskCache().isTaskCacheMemoryBounded()){
+            return(TASK_AGE_BEFORE_FORCED_RETIREMENT_WHEN_MEMORY_BOUNDED);
+        }
         return TASK_AGE_BEFORE_FORCED_RETIREMENT;
     }
 
@@ -21,6 +21,12 @@
  */
 package net.fhirfactory.pegacorn.ponos.interfaces;
 
+import net.fhirfactory.pegacorn.ponos.interfaces.datatypes.PonosCacheProfile;
+
+import java.util.Map;
+
 public interface PonosSubsystemDetailsInterface {
     public String getInfinispanJGroupsConfigFile();
+    public Map<String, PonosCacheProfile> getCacheProfiles();
+    public Long getTaskAgeBeforeForcedRetirement();
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2021 Mark A. Hunter
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fhirfactory.pegacorn.ponos.interfaces.datatypes;
+
+/**
+ * The (configuration file defined) tuning for a single Ponos cache. Any value left unset (null) retains the value of
+ * the standard Ponos cache configuration.
+ *
+ * The task caches (ActionableTaskCache, ActionableTaskComponentIndex and ActionableTaskPayloadStore) are lossless: a
+ * memory bound is only applied to them together with overflowToDisk, and lifespan/maxIdle are ignored.
+ */
+public class PonosCacheProfile {
+    private PonosCacheClusteringModeEnum clusteringMode;
+    private Boolean synchronousReplication;
+    private Integer numberOfOwners;
+    private Long maxCount;
+    private PonosCacheStorageTypeEnum storageType;
+    private String maxSize;
+    private Long lifespan;
+    private Long maxIdle;
+    private Long lockAcquisitionTimeout;
+    private Integer lockConcurrencyLevel;
+    private Boolean lockStriping;
+    private Long nearCacheMaxCount;
+    private Long nearCacheLifespan;
+    private Boolean overflowToDisk;
+    private String overflowLocation;
+
+    //
+    // Constructor(s)
+    //
+
+    public PonosCacheProfile(){
+        this.clusteringMode = null;
+        this.synchronousReplication = null;
+        this.numberOfOwners = null;
+        this.maxCount = null;
+        this.storageType = null;
+        this.maxSize = null;
+        this.lifespan = null;
+        this.maxIdle = null;
+        this.lockAcquisitionTimeout = null;
+        this.lockConcurrencyLevel = null;
+        this.lockStriping = null;
+        this.nearCacheMaxCount = null;
+        this.nearCacheLifespan = null;
+        this.overflowToDisk = null;
+        this.overflowLocation = null;
+    }
+
+    //
+    // Getters and Setters
+    //
+
+    public PonosCacheClusteringModeEnum getClusteringMode() {
+        return clusteringMode;
+    }
+
+    public void setClusteringMode(PonosCacheClusteringModeEnum clusteringMode) {
+        this.clusteringMode = clusteringMode;
+    }
+
+    public Boolean getSynchronousReplication() {
+        return synchronousReplication;
+    }
+
+    public void setSynchronousReplication(Boolean synchronousReplication) {
+        this.synchronousReplication = synchronousReplication;
+    }
+
+    public Integer getNumberOfOwners() {
+        return numberOfOwners;
+    }
+
+    public void setNumberOfOwners(Integer numberOfOwners) {
+        this.numberOfOwners = numberOfOwners;
+    }
+
+    /**
+     * @return the maximum number of entries held (per node) before entries are evicted
+     */
+    public Long getMaxCount() {
+        return maxCount;
+    }
+
+    public void setMaxCount(Long maxCount) {
+        this.maxCount = maxCount;
+    }
+
+    public PonosCacheStorageTypeEnum getStorageType() {
+        return storageType;
+    }
+
+    public void setStorageType(PonosCacheStorageTypeEnum storageType) {
+        this.storageType = storageType;
+    }
+
+    /**
+     * @return the maximum amount of memory (per node, e.g. "512MB") the entries may occupy before entries are
+     * evicted - only applicable to OFF_HEAP caches (heap entries are held as objects, so have no size to bound)
+     */
+    public String getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(String maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the lifespan (in milliseconds) of an entry
+     */
+    public Long getLifespan() {
+        return lifespan;
+    }
+
+    public void setLifespan(Long lifespan) {
+        this.lifespan = lifespan;
+    }
+
+    /**
+     * @return the time (in milliseconds) an entry may go unused before it is expired
+     */
+    public Long getMaxIdle() {
+        return maxIdle;
+    }
+
+    public void setMaxIdle(Long maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * @return the time (in milliseconds) to wait for an entry lock
+     */
+    public Long getLockAcquisitionTimeout() {
+        return lockAcquisitionTimeout;
+    }
+
+    public void setLockAcquisitionTimeout(Long lockAcquisitionTimeout) {
+        this.lockAcquisitionTimeout = lockAcquisitionTimeout;
+    }
+
+    public Integer getLockConcurrencyLevel() {
+        return lockConcurrencyLevel;
+    }
+
+    public void setLockConcurrencyLevel(Integer lockConcurrencyLevel) {
+        this.lockConcurrencyLevel = lockConcurrencyLevel;
+    }
+
+    public Boolean getLockStriping() {
+        return lockStriping;
+    }
+
+    public void setLockStriping(Boolean lockStriping) {
+        this.lockStriping = lockStriping;
+    }
+
+    /**
+     * @return the maximum number of entries held in the (per node) near cache in front of the cache - 0 disables the
+     * near cache
+     */
+    public Long getNearCacheMaxCount() {
+        return nearCacheMaxCount;
+    }
+
+    public void setNearCacheMaxCount(Long nearCacheMaxCount) {
+        this.nearCacheMaxCount = nearCacheMaxCount;
+    }
+
+    /**
+     * @return the lifespan (in milliseconds) of a near cache entry
+     */
+    public Long getNearCacheLifespan() {
+        return nearCacheLifespan;
+    }
+
+    public void setNearCacheLifespan(Long nearCacheLifespan) {
+        this.nearCacheLifespan = nearCacheLifespan;
+    }
+
+    /**
+     * @return whether entries evicted by the memory bounds (maxCount/maxSize) are passivated to a local file store
+     * (and activated again on access) rather than being discarded
+     */
+    public Boolean getOverflowToDisk() {
+        return overflowToDisk;
+    }
+
+    public void setOverflowToDisk(Boolean overflowToDisk) {
+        this.overflowToDisk = overflowToDisk;
+    }
+
+    /**
+     * @return the directory of the local overflow file store (each cache uses its own sub-directory)
+     */
+    public String getOverflowLocation() {
+        return overflowLocation;
+    }
+
+    public void setOverflowLocation(String overflowLocation) {
+        this.overflowLocation = overflowLocation;
+    }
+
+    //
+    // To String
+    //
+
+    @Override
+    public String toString() {
+        return "PonosCacheProfile{" +
+                "clusteringMode=" + clusteringMode +
+                ", synchronousReplication=" + synchronousReplication +
+                ", numberOfOwners=" + numberOfOwners +
+                ", maxCount=" + maxCount +
+                ", storageType=" + storageType +
+                ", maxSize=" + maxSize +
+                ", lifespan=" + lifespan +
+                ", maxIdle=" + maxIdle +
+                ", lockAcquisitionTimeout=" + lockAcquisitionTimeout +
+                ", lockConcurrencyLevel=" + lockConcurrencyLevel +
+                ", lockStriping=" + lockStriping +
+                ", nearCacheMaxCount=" + nearCacheMaxCount +
+                ", nearCacheLifespan=" + nearCacheLifespan +
+                ", overflowToDisk=" + overflowToDisk +
+                ", overflowLocation=" + overflowLocation +
+                '}';
+    }
+}